@@ -1,7 +1,5 @@
 package com.example.map;
 
-import java.util.List;
-
 /**
  * Entry point for the demo.
  */
@@ -11,7 +9,8 @@ public class App {
         int n = 30_000;
 
         MapDataSource ds = new MapDataSource();
-        List<MapMarker> markers = ds.loadMarkers(n);
+        // Columnar store: same markers as loadMarkers(n), no MapMarker object per row.
+        MarkerStore markers = ds.loadStore(n);
 
         new MapRenderer().render(markers);
 
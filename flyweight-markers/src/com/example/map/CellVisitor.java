@@ -0,0 +1,9 @@
+package com.example.map;
+
+/**
+ * Callback for grid cell passes, e.g. LiveMarkerLayer.drainDirty().
+ */
+@FunctionalInterface
+public interface CellVisitor {
+    void visit(int cell);
+}
@@ -0,0 +1,57 @@
+package com.example.map;
+
+/**
+ * Builds the cluster index for the demo markers, renders a zoomed-out and a
+ * zoomed-in viewport, then inserts new markers to show that only their cells
+ * change, and checks that a NaN coordinate fails the build.
+ */
+public class ClusterCheck {
+
+    public static void main(String[] args) {
+        int n = 30_000;
+        MarkerStore store = new MapDataSource().loadStore(n);
+
+        long t0 = System.nanoTime();
+        ClusterIndex clusters = ClusterIndex.build(store, 8);
+        long buildMs = (System.nanoTime() - t0) / 1_000_000;
+        System.out.println("Built clusters for " + n + " markers, zoom 0.." + clusters.maxZoom()
+                + " in " + buildMs + " ms");
+
+        MapRenderer renderer = new MapRenderer();
+        renderer.renderClusters(clusters, 12.90, 77.50, 13.10, 77.70, 64);
+        System.out.println();
+        renderer.renderClusters(clusters, 12.95, 77.55, 12.96, 77.56, 64);
+
+        int zoom = clusters.maxZoom();
+        int[] before = countAt(clusters, zoom, 12.9501, 77.5501);
+        int styleId = store.getStyles().getId(MarkerShape.SQUARE, MarkerColor.RED, 20, true);
+        for (int i = 0; i < 500; i++) {
+            clusters.insert(12.9501, 77.5501, styleId);
+        }
+        int[] after = countAt(clusters, zoom, 12.9501, 77.5501);
+        System.out.println("\nInserted 500 markers at (12.9501, 77.5501): cell count "
+                + before[0] + " -> " + after[0] + ", level-0 total " + totalAt(clusters));
+        clusters.query(zoom, 12.9501, 77.5501, 12.9501, 77.5501,
+                (lat, lng, count, style) -> System.out.println("  dominant style now " + style));
+
+        store.add(Double.NaN, 77.6, styleId);
+        try {
+            ClusterIndex.build(store, 8);
+            System.out.println("\nNaN coordinate was NOT rejected");
+        } catch (IllegalArgumentException expected) {
+            System.out.println("\nNaN coordinate rejected: " + expected.getMessage());
+        }
+    }
+
+    private static int[] countAt(ClusterIndex clusters, int zoom, double lat, double lng) {
+        int[] out = new int[1];
+        clusters.query(zoom, lat, lng, lat, lng, (cLat, cLng, count, style) -> out[0] = count);
+        return out;
+    }
+
+    private static int totalAt(ClusterIndex clusters) {
+        int[] out = new int[1];
+        clusters.query(0, -90, -180, 90, 180, (cLat, cLng, count, style) -> out[0] += count);
+        return out[0];
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.map;
+
+import java.util.Arrays;
+
+/**
+ * Precomputed marker clusters for zoomed-out rendering.
+ *
+ * The bounding box is cut into 2^z x 2^z cells at every zoom level z in
+ * 0..maxZoom. Each cell keeps its marker count, the coordinate sums (for a
+ * centroid), and its dominant style, i.e. the most frequent style id. The
+ * bounds are fixed at construction, so insert() touches exactly one cell per
+ * level and a new marker never forces a rebuild. Markers outside the bounds
+ * are clamped into the border cells; non-finite coordinates are rejected.
+ *
+ * Cells are stored densely per level, about 4^(maxZoom+1)/3 cells of 26 bytes
+ * in total, so maxZoom is capped at MAX_ZOOM (about 36 MB before any marker);
+ * zoom in past it with SpatialGrid instead. The dominant style needs a count
+ * per distinct (cell, style) pair on every level, 16-32 bytes each; for 1M
+ * city markers that is about 47 B/marker at zoom 8 and 97 B/marker at zoom 10.
+ */
+public class ClusterIndex {
+
+    public static final int MAX_ZOOM = 10;
+
+    private final MarkerStylePool styles;
+    private final double minLat;
+    private final double minLng;
+    private final double latSpan;
+    private final double lngSpan;
+    private final Level[] levels;
+
+    public ClusterIndex(MarkerStylePool styles, double minLat, double minLng,
+                        double maxLat, double maxLng, int maxZoom) {
+        if (maxZoom < 0 || maxZoom > MAX_ZOOM) {
+            throw new IllegalArgumentException("maxZoom must be in 0.." + MAX_ZOOM + ": " + maxZoom);
+        }
+        if (!Double.isFinite(minLat) || !Double.isFinite(minLng) || !Double.isFinite(maxLat) || !Double.isFinite(maxLng)) {
+            throw new IllegalArgumentException("Bounds must be finite: " + minLat + "," + minLng + " .. " + maxLat + "," + maxLng);
+        }
+        this.styles = styles;
+        this.minLat = minLat;
+        this.minLng = minLng;
+        this.latSpan = Math.max(maxLat - minLat, 1e-12);
+        this.lngSpan = Math.max(maxLng - minLng, 1e-12);
+        this.levels = new Level[maxZoom + 1];
+        for (int z = 0; z <= maxZoom; z++) {
+            levels[z] = new Level(1 << z);
+        }
+    }
+
+    /**
+     * Index over every row of the store, bounded by the store's extent. A row
+     * with a NaN or infinite coordinate would poison the bounds, so it fails
+     * the build.
+     */
+    public static ClusterIndex build(MarkerStore store, int maxZoom) {
+        double minLat = Double.POSITIVE_INFINITY, maxLat = Double.NEGATIVE_INFINITY;
+        double minLng = Double.POSITIVE_INFINITY, maxLng = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < store.size(); i++) {
+            if (!Double.isFinite(store.lat(i)) || !Double.isFinite(store.lng(i))) {
+                throw new IllegalArgumentException("Non-finite coordinate at row " + i + ": "
+                        + store.lat(i) + ", " + store.lng(i));
+            }
+            minLat = Math.min(minLat, store.lat(i));
+            maxLat = Math.max(maxLat, store.lat(i));
+            minLng = Math.min(minLng, store.lng(i));
+            maxLng = Math.max(maxLng, store.lng(i));
+        }
+        if (store.size() == 0) {
+            minLat = maxLat = minLng = maxLng = 0;
+        }
+        ClusterIndex index = new ClusterIndex(store.getStyles(), minLat, minLng, maxLat, maxLng, maxZoom);
+        for (int i = 0; i < store.size(); i++) {
+            index.insert(store.lat(i), store.lng(i), store.styleId(i));
+        }
+        return index;
+    }
+
+    public int maxZoom() {
+        return levels.length - 1;
+    }
+
+    /** Adds one marker, updating the single affected cell on each level. */
+    public void insert(double lat, double lng, int styleId) {
+        if (!Double.isFinite(lat) || !Double.isFinite(lng)) {
+            throw new IllegalArgumentException("Non-finite coordinate: " + lat + ", " + lng);
+        }
+        double fy = (lat - minLat) / latSpan;
+        double fx = (lng - minLng) / lngSpan;
+        for (Level level : levels) {
+            level.add(level.cellOf(fy, fx), lat, lng, styleId);
+        }
+    }
+
+    /**
+     * Highest zoom level whose cells covering the viewport number at most
+     * maxCells; that level gives the most detail within the budget.
+     */
+    public int levelFor(double minLat, double minLng, double maxLat, double maxLng, int maxCells) {
+        for (int z = levels.length - 1; z > 0; z--) {
+            Level level = levels[z];
+            long rows = level.row(maxLat) - level.row(minLat) + 1L;
+            long cols = level.col(maxLng) - level.col(minLng) + 1L;
+            if (rows * cols <= maxCells) {
+                return z;
+            }
+        }
+        return 0;
+    }
+
+    /** Visits every non-empty cell of the level that overlaps the viewport; returns the cell count. */
+    public int query(int zoom, double minLat, double minLng, double maxLat, double maxLng, ClusterVisitor visitor) {
+        Level level = levels[zoom];
+        int r0 = level.row(minLat), r1 = level.row(maxLat);
+        int c0 = level.col(minLng), c1 = level.col(maxLng);
+        int found = 0;
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int cell = r * level.side + c;
+                int n = level.count[cell];
+                if (n > 0) {
+                    visitor.visit(level.sumLat[cell] / n, level.sumLng[cell] / n, n,
+                            styles.byId(level.dominantStyle[cell]));
+                    found++;
+                }
+            }
+        }
+        return found;
+    }
+
+    private final class Level {
+        final int side;
+        final int[] count;
+        final double[] sumLat;
+        final double[] sumLng;
+        final short[] dominantStyle;
+        final int[] dominantCount;
+        final CellStyleCounts styleCounts = new CellStyleCounts();
+
+        Level(int side) {
+            this.side = side;
+            int cells = side * side;
+            count = new int[cells];
+            sumLat = new double[cells];
+            sumLng = new double[cells];
+            dominantStyle = new short[cells];
+            dominantCount = new int[cells];
+        }
+
+        int cellOf(double fy, double fx) {
+            return clamp((int) (fy * side)) * side + clamp((int) (fx * side));
+        }
+
+        int row(double lat) {
+            return clamp((int) Math.floor((lat - minLat) / latSpan * side));
+        }
+
+        int col(double lng) {
+            return clamp((int) Math.floor((lng - minLng) / lngSpan * side));
+        }
+
+        void add(int cell, double lat, double lng, int styleId) {
+            count[cell]++;
+            sumLat[cell] += lat;
+            sumLng[cell] += lng;
+            int n = styleCounts.increment((long) cell << 16 | styleId);
+            if (n > dominantCount[cell]) {
+                dominantCount[cell] = n;
+                dominantStyle[cell] = (short) styleId;
+            }
+        }
+
+        private int clamp(int v) {
+            return v < 0 ? 0 : (v >= side ? side - 1 : v);
+        }
+    }
+
+    /** Open-addressing long -> int counter for (cell, style) pairs; no boxing. */
+    private static final class CellStyleCounts {
+        private static final long EMPTY = -1L;
+
+        private long[] keys = new long[64];
+        private int[] values = new int[64];
+        private int size;
+
+        CellStyleCounts() {
+            Arrays.fill(keys, EMPTY);
+        }
+
+        int increment(long key) {
+            int mask = keys.length - 1;
+            int i = mix(key) & mask;
+            while (keys[i] != EMPTY) {
+                if (keys[i] == key) {
+                    return ++values[i];
+                }
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            values[i] = 1;
+            if (++size * 4 > keys.length * 3) { // load factor 3/4
+                grow();
+            }
+            return 1;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new int[oldKeys.length * 2];
+            Arrays.fill(keys, EMPTY);
+            int mask = keys.length - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldKeys[j] != EMPTY) {
+                    int i = mix(oldKeys[j]) & mask;
+                    while (keys[i] != EMPTY) {
+                        i = (i + 1) & mask;
+                    }
+                    keys[i] = oldKeys[j];
+                    values[i] = oldValues[j];
+                }
+            }
+        }
+
+        private static int mix(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.map;
+
+/**
+ * Callback for cluster queries: one call per non-empty cell.
+ */
+@FunctionalInterface
+public interface ClusterVisitor {
+    void visit(double centerLat, double centerLng, int count, MarkerStyle dominantStyle);
+}
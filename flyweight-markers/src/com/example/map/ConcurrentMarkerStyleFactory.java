@@ -0,0 +1,83 @@
+package com.example.map;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Thread-safe MarkerStylePool for parallel loading.
+ *
+ * Guarantees exactly one MarkerStyle instance per configuration even when
+ * many threads ask for a new style at once. Dense slots are installed with a
+ * compareAndSet: a thread that loses the race drops its candidate and returns
+ * the winner. Fallback configurations go through ConcurrentHashMap
+ * computeIfAbsent. Ids use the same layout as MarkerStyleFactory, so stores
+ * work with either factory.
+ */
+public class ConcurrentMarkerStyleFactory implements MarkerStylePool {
+
+    private static final int MAX_ID = Short.MAX_VALUE;
+    private static final int DENSE_SLOTS = MarkerStyleFactory.DENSE_SLOTS;
+    private static final int MAX_DENSE_SIZE = MarkerStyleFactory.MAX_DENSE_SIZE;
+
+    private final AtomicReferenceArray<MarkerStyle> dense = new AtomicReferenceArray<>(DENSE_SLOTS);
+    private final ConcurrentHashMap<String, Integer> fallback = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, MarkerStyle> fallbackById = new ConcurrentHashMap<>();
+    private final AtomicInteger nextFallbackId = new AtomicInteger(DENSE_SLOTS);
+    private final AtomicInteger created = new AtomicInteger();
+
+    @Override
+    public int getId(MarkerShape shape, MarkerColor color, int size, boolean filled) {
+        if (size < 0 || size >= MAX_DENSE_SIZE) {
+            return fallbackId(shape.name(), color.name(), size, filled);
+        }
+        int id = MarkerStyleFactory.packedIndex(shape, color, size, filled);
+        if (dense.get(id) == null
+                && dense.compareAndSet(id, null, new MarkerStyle(shape.name(), color.name(), size, filled))) {
+            created.incrementAndGet();
+        }
+        return id;
+    }
+
+    @Override
+    public int getId(String shape, String color, int size, boolean filled) {
+        MarkerShape s = MarkerShape.of(shape);
+        MarkerColor c = MarkerColor.of(color);
+        if (s != null && c != null) {
+            return getId(s, c, size, filled);
+        }
+        return fallbackId(shape, color, size, filled);
+    }
+
+    @Override
+    public MarkerStyle byId(int id) {
+        MarkerStyle style = id < DENSE_SLOTS ? dense.get(id) : fallbackById.get(id);
+        if (style == null) {
+            throw new IllegalArgumentException("No style with id " + id);
+        }
+        return style;
+    }
+
+    @Override
+    public int cacheSize() {
+        return created.get();
+    }
+
+    private int fallbackId(String shape, String color, int size, boolean filled) {
+        String key = shape + "|" + color + "|" + size + "|" + (filled ? "F" : "O");
+        Integer id = fallback.get(key);
+        if (id != null) {
+            return id;
+        }
+        return fallback.computeIfAbsent(key, k -> {
+            int next = nextFallbackId.getAndIncrement();
+            if (next > MAX_ID) {
+                throw new IllegalStateException("Too many distinct marker styles");
+            }
+            // published before the id escapes computeIfAbsent, so byId(next) always finds it
+            fallbackById.put(next, new MarkerStyle(shape, color, size, filled));
+            created.incrementAndGet();
+            return next;
+        });
+    }
+}
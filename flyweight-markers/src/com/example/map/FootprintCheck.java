@@ -0,0 +1,103 @@
+package com.example.map;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Measures retained heap per marker for each representation:
+ * - naive:       MapMarker (the starter's lat, lng, label String, style)
+ *                with its own MarkerStyle per marker
+ * - shared:      MapMarker with MarkerStyleFactory flyweights and an eager
+ *                label String per marker
+ * - shared-lazy: LazyLabelMarker from loadMarkers(), sharing flyweights and
+ *                computing labels on demand
+ * - columnar:    MarkerStore (primitive arrays, labels generated on demand)
+ * - col+heap:    MarkerStore with its labels stored in a Utf8LabelHeap,
+ *                the cost of arbitrary (non-generated) labels
+ *
+ * Retained size = heap used (MemoryMXBean) after building and settling GC,
+ * minus heap used before. Each configuration is measured on its own with
+ * everything else unreachable; sizes that don't fit in -Xmx are reported as
+ * skipped. Run with a fixed heap and a non-concurrent collector for stable
+ * numbers, e.g.
+ *
+ *   java -Xms6g -Xmx6g -XX:+UseParallelGC com.example.map.FootprintCheck [counts...]
+ */
+public class FootprintCheck {
+
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    public static void main(String[] args) {
+        int[] counts = args.length > 0 ? new int[args.length] : new int[]{10_000, 1_000_000, 10_000_000};
+        for (int i = 0; i < args.length; i++) {
+            counts[i] = Integer.parseInt(args[i]);
+        }
+
+        System.out.println("Max heap: " + Runtime.getRuntime().maxMemory() / (1024 * 1024) + " MB");
+        System.out.printf("%-11s %12s %14s %12s%n", "layout", "markers", "retained", "bytes/marker");
+        for (int n : counts) {
+            measure("naive", n, count -> eagerMarkers(count, false));
+            measure("shared", n, count -> eagerMarkers(count, true));
+            measure("shared-lazy", n, count -> new MapDataSource().loadMarkers(count));
+            measure("columnar", n, count -> new MapDataSource().loadStore(count));
+            measure("col+heap", n, FootprintCheck::columnarWithHeap);
+        }
+    }
+
+    private static void measure(String layout, int n, IntFunction<Object> build) {
+        long before = settledUsed();
+        Object retained;
+        try {
+            retained = build.apply(n);
+        } catch (OutOfMemoryError e) {
+            System.out.printf("%-11s %,12d %14s%n", layout, n, "skipped (OOM)");
+            return;
+        }
+        long after = settledUsed();
+        Reference.reachabilityFence(retained);
+        long bytes = after - before;
+        System.out.printf("%-11s %,12d %,14d %12.1f%n", layout, n, bytes, bytes / (double) n);
+    }
+
+    // same markers as loadMarkers, with eager "M-" + i labels and styles
+    // either shared from the factory or a fresh MarkerStyle per marker
+    private static List<MapMarker> eagerMarkers(int n, boolean shareStyles) {
+        MarkerStore source = new MapDataSource().loadStore(n);
+        List<MapMarker> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            MarkerStyle s = source.style(i);
+            MarkerStyle style = shareStyles ? s : new MarkerStyle(s.getShape(), s.getColor(), s.getSize(), s.isFilled());
+            out.add(new MapMarker(source.lat(i), source.lng(i), "M-" + i, style));
+        }
+        return out;
+    }
+
+    private static MarkerStore columnarWithHeap(int n) {
+        MarkerStore source = new MapDataSource().loadStore(n);
+        Utf8LabelHeap labels = new Utf8LabelHeap(n);
+        MarkerStore out = new MarkerStore(source.getStyles(), labels, n);
+        for (int i = 0; i < n; i++) {
+            labels.add(source.label(i));
+            out.add(source.lat(i), source.lng(i), source.styleId(i));
+        }
+        return out;
+    }
+
+    // collects until used heap stops shrinking, so the reading excludes garbage
+    private static long settledUsed() {
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 10; i++) {
+            System.gc();
+            long now = MEMORY.getHeapMemoryUsage().getUsed();
+            if (now >= used) {
+                return now;
+            }
+            used = now;
+        }
+        return used;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.map;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Labels with many repeats (e.g. "Bus stop", "ATM"): each distinct label is
+ * kept once, and a row only stores an int id into that table.
+ * Labels are added in row order.
+ */
+public class InternedLabels implements LabelStrategy {
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private String[] table = new String[16];
+    private int[] labelIds;
+    private int size;
+
+    public InternedLabels(int initialCapacity) {
+        this.labelIds = new int[Math.max(1, initialCapacity)];
+    }
+
+    /** Appends the label for the next row and returns that row. */
+    public int add(String label) {
+        Integer id = ids.get(label);
+        if (id == null) {
+            id = ids.size();
+            if (id == table.length) {
+                table = Arrays.copyOf(table, id * 2);
+            }
+            table[id] = label;
+            ids.put(label, id);
+        }
+        if (size == labelIds.length) {
+            labelIds = Arrays.copyOf(labelIds, size * 2);
+        }
+        labelIds[size] = id;
+        return size++;
+    }
+
+    public int size() { return size; }
+
+    public int distinctCount() { return ids.size(); }
+
+    @Override
+    public String label(int row) { return table[labelIds[check(row)]]; }
+
+    @Override
+    public void appendTo(int row, RenderBuffer out) {
+        out.append(label(row));
+    }
+
+    private int check(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("row " + row + " of " + size);
+        }
+        return row;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.map;
+
+/**
+ * Where marker labels come from, by row.
+ *
+ * Renderers call appendTo(), which writes the label straight into the
+ * output buffer; label() builds a String and is only for callers that
+ * really need one (getters, equality checks).
+ */
+public interface LabelStrategy {
+
+    String label(int row);
+
+    void appendTo(int row, RenderBuffer out);
+}
@@ -0,0 +1,22 @@
+package com.example.map;
+
+/**
+ * A MapMarker whose label is computed on demand: nothing is stored but the
+ * row, and getLabel() asks the shared strategy each time, so unprinted labels
+ * never become Strings. A subclass, so eagerly labelled MapMarkers keep the
+ * starter's four fields.
+ */
+public class LazyLabelMarker extends MapMarker {
+
+    private final LabelStrategy labels; // shared, e.g. PatternLabels("M-")
+    private final int labelRow;
+
+    public LazyLabelMarker(double lat, double lng, LabelStrategy labels, int labelRow, MarkerStyle style) {
+        super(lat, lng, null, style);
+        this.labels = labels;
+        this.labelRow = labelRow;
+    }
+
+    @Override
+    public String getLabel() { return labels.label(labelRow); }
+}
@@ -0,0 +1,104 @@
+package com.example.map;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.SplittableRandom;
+
+/**
+ * Drives a LiveMarkerLayer like a vehicle feed: small random moves plus the
+ * occasional restyle, timed in frames of updates, each followed by a
+ * renderDirty() pass into a discarding channel, and reports the bytes
+ * allocated per frame (expected ~0). Then checks that every
+ * marker is linked into the cell that contains it.
+ *
+ * Usage: java -Xmx1g com.example.map.LiveBench [vehicles] [updatesPerFrame]
+ */
+public class LiveBench {
+
+    public static void main(String[] args) {
+        int vehicles = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int perFrame = args.length > 1 ? Integer.parseInt(args[1]) : 5_000;
+        int frames = 400;
+
+        MarkerStore source = new MapDataSource().loadStore(vehicles);
+        LiveMarkerLayer layer = new LiveMarkerLayer(source.getStyles(), 12.9, 77.5, 13.1, 77.7, 64, vehicles);
+        for (int i = 0; i < vehicles; i++) {
+            layer.add(source.lat(i), source.lng(i), source.styleId(i));
+        }
+        MapRenderer renderer = new MapRenderer();
+        WritableByteChannel sink = Channels.newChannel(OutputStream.nullOutputStream());
+        renderer.renderDirty(layer, sink);
+
+        int[] styleIds = new int[16];
+        for (int i = 0; i < styleIds.length; i++) {
+            styleIds[i] = source.styleId(i);
+        }
+
+        SplittableRandom rnd = new SplittableRandom(3);
+        for (int round = 0; round < 2; round++) { // first round is warm-up
+            long updateNs = 0, renderNs = 0, dirtyCells = 0;
+            long allocated = allocatedBytes();
+            for (int f = 0; f < frames; f++) {
+                long t0 = System.nanoTime();
+                for (int u = 0; u < perFrame; u++) {
+                    int id = rnd.nextInt(vehicles);
+                    if ((u & 31) == 0) {
+                        layer.restyle(id, styleIds[rnd.nextInt(styleIds.length)]);
+                    } else {
+                        // a vehicle moves up to ~50 m per update
+                        layer.move(id, layer.lat(id) + (rnd.nextDouble() - 0.5) * 0.001,
+                                layer.lng(id) + (rnd.nextDouble() - 0.5) * 0.001);
+                    }
+                }
+                long t1 = System.nanoTime();
+                dirtyCells += layer.dirtyCellCount();
+                renderer.renderDirty(layer, sink);
+                long t2 = System.nanoTime();
+                updateNs += t1 - t0;
+                renderNs += t2 - t1;
+            }
+            allocated = allocatedBytes() - allocated;
+            if (round == 1) {
+                long updates = (long) frames * perFrame;
+                System.out.printf("Vehicles: %,d, cells: %,d, %d frames x %,d updates%n",
+                        vehicles, layer.cellCount(), frames, perFrame);
+                System.out.printf("Updates: %,.0f/s (%.0f ns each)%n", updates * 1e9 / updateNs, (double) updateNs / updates);
+                System.out.printf("Dirty render: %.2f ms/frame, %.0f dirty cells/frame%n",
+                        renderNs / 1e6 / frames, (double) dirtyCells / frames);
+                System.out.printf("Allocated: %.1f bytes/frame (updates + render)%n", (double) allocated / frames);
+            }
+        }
+
+        System.out.println("Markers in the wrong cell: " + misplaced(layer));
+
+        // a frame touching one marker re-renders a single cell
+        layer.move(0, layer.lat(0), layer.lng(0));
+        ByteArrayOutputStream frame = new ByteArrayOutputStream();
+        renderer.renderDirty(layer, Channels.newChannel(frame));
+        String text = frame.toString();
+        System.out.print(text.substring(0, text.indexOf('\n', text.indexOf('\n') + 1) + 1));
+        System.out.println("(" + text.split("\n").length + " lines for one updated marker)");
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    // walks every cell list; counts markers linked into a cell their position is not in
+    private static int misplaced(LiveMarkerLayer layer) {
+        int linked = 0, wrong = 0;
+        for (int cell = 0; cell < layer.cellCount(); cell++) {
+            for (int id = layer.firstInCell(cell); id >= 0; id = layer.nextInCell(id)) {
+                linked++;
+                if (layer.cellAt(layer.lat(id), layer.lng(id)) != cell) {
+                    wrong++;
+                }
+            }
+        }
+        return wrong + Math.abs(layer.size() - linked);
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.map;
+
+import java.util.Arrays;
+
+/**
+ * Mutable marker layer for live data (e.g. moving vehicles), addressed by id.
+ *
+ * Markers are stored columnar like {@link MarkerStore}, the id being the row.
+ * Each marker is also linked into the uniform grid cell that contains it,
+ * through intrusive prev/next int arrays, so move() relinks it in O(1)
+ * without allocating. move() and restyle() mark the affected cells dirty;
+ * drainDirty() hands each dirty cell to a visitor once and clears the set,
+ * so a renderer only redraws the cells that changed.
+ *
+ * The grid covers fixed bounds given at construction; positions outside
+ * them go to the nearest edge cell. Not thread-safe: one updater thread.
+ */
+public class LiveMarkerLayer implements MarkerView {
+
+    private static final int NONE = -1;
+    private static final LabelStrategy LABELS = new PatternLabels("M-");
+
+    private final MarkerStylePool styles;
+    private final double minLat;
+    private final double minLng;
+    private final double cellLat;
+    private final double cellLng;
+    private final int side;
+
+    private double[] lats;
+    private double[] lngs;
+    private short[] styleIds;
+    private int[] cellOf;
+    private int[] next;
+    private int[] prev;
+    private int size;
+
+    private final int[] head;       // first marker in each cell, or NONE
+    private final int[] cellCounts;
+    private final long[] dirtyBits; // one bit per cell, so a cell is queued once
+    private int[] dirtyCells;
+    private int[] draining;         // swapped with dirtyCells by drainDirty()
+    private int dirtyCount;
+
+    public LiveMarkerLayer(MarkerStylePool styles, double minLat, double minLng,
+                           double maxLat, double maxLng, int side, int initialCapacity) {
+        if (side < 1 || !(maxLat > minLat) || !(maxLng > minLng)) {
+            throw new IllegalArgumentException("Need side >= 1 and a non-empty box");
+        }
+        int cap = Math.max(1, initialCapacity);
+        this.styles = styles;
+        this.minLat = minLat;
+        this.minLng = minLng;
+        this.cellLat = (maxLat - minLat) / side;
+        this.cellLng = (maxLng - minLng) / side;
+        this.side = side;
+        this.lats = new double[cap];
+        this.lngs = new double[cap];
+        this.styleIds = new short[cap];
+        this.cellOf = new int[cap];
+        this.next = new int[cap];
+        this.prev = new int[cap];
+
+        int cells = side * side;
+        this.head = new int[cells];
+        Arrays.fill(head, NONE);
+        this.cellCounts = new int[cells];
+        this.dirtyBits = new long[(cells + 63) >>> 6];
+        this.dirtyCells = new int[cells];
+        this.draining = new int[cells];
+    }
+
+    /** Adds a marker and returns its id. Its cell becomes dirty. */
+    public int add(double lat, double lng, int styleId) {
+        checkStyleId(styleId);
+        if (size == lats.length) {
+            int cap = lats.length * 2;
+            lats = Arrays.copyOf(lats, cap);
+            lngs = Arrays.copyOf(lngs, cap);
+            styleIds = Arrays.copyOf(styleIds, cap);
+            cellOf = Arrays.copyOf(cellOf, cap);
+            next = Arrays.copyOf(next, cap);
+            prev = Arrays.copyOf(prev, cap);
+        }
+        int id = size++;
+        lats[id] = lat;
+        lngs[id] = lng;
+        styleIds[id] = (short) styleId;
+        int cell = cellAt(lat, lng);
+        link(id, cell);
+        markDirty(cell);
+        return id;
+    }
+
+    /** Moves a marker; its old and new cells become dirty. */
+    public void move(int id, double lat, double lng) {
+        check(id);
+        lats[id] = lat;
+        lngs[id] = lng;
+        int from = cellOf[id];
+        int to = cellAt(lat, lng);
+        if (to != from) {
+            unlink(id);
+            link(id, to);
+            markDirty(to);
+        }
+        markDirty(from);
+    }
+
+    /** Changes a marker's style id (from the layer's factory); its cell becomes dirty. */
+    public void restyle(int id, int styleId) {
+        check(id);
+        checkStyleId(styleId);
+        styleIds[id] = (short) styleId;
+        markDirty(cellOf[id]);
+    }
+
+    /** Same as restyle(id, styleId), resolving the style through the factory. */
+    public void restyle(int id, MarkerStyle style) {
+        restyle(id, styles.getId(style.getShape(), style.getColor(), style.getSize(), style.isFilled()));
+    }
+
+    /**
+     * Visits each dirty cell once, in the order they were first dirtied, and
+     * clears the dirty set. Returns the number of cells visited. Updates made
+     * from inside the visitor are kept for the next drain.
+     */
+    public int drainDirty(CellVisitor visitor) {
+        int n = dirtyCount;
+        int[] batch = dirtyCells;
+        dirtyCells = draining;
+        draining = batch;
+        for (int i = 0; i < n; i++) {
+            dirtyBits[batch[i] >>> 6] &= ~(1L << batch[i]);
+        }
+        dirtyCount = 0;
+        for (int i = 0; i < n; i++) {
+            visitor.visit(batch[i]);
+        }
+        return n;
+    }
+
+    public int dirtyCellCount() { return dirtyCount; }
+
+    /** First marker id in the cell, or -1 if it is empty. */
+    public int firstInCell(int cell) { return head[cell]; }
+
+    /** Next marker id in the same cell, or -1 at the end. */
+    public int nextInCell(int id) { return next[check(id)]; }
+
+    public int cellSize(int cell) { return cellCounts[cell]; }
+
+    public int cellOf(int id) { return cellOf[check(id)]; }
+
+    public int cellCount() { return side * side; }
+
+    @Override
+    public int size() { return size; }
+
+    @Override
+    public double lat(int id) { return lats[check(id)]; }
+
+    @Override
+    public double lng(int id) { return lngs[check(id)]; }
+
+    public int styleId(int id) { return styleIds[check(id)]; }
+
+    @Override
+    public MarkerStyle style(int id) { return styles.byId(styleIds[check(id)]); }
+
+    @Override
+    public String label(int id) { return LABELS.label(check(id)); }
+
+    @Override
+    public void appendLabel(int id, RenderBuffer out) { LABELS.appendTo(check(id), out); }
+
+    /** The cell a position falls in (edge cell for positions outside the bounds). */
+    public int cellAt(double lat, double lng) {
+        int r = clamp((int) Math.floor((lat - minLat) / cellLat));
+        int c = clamp((int) Math.floor((lng - minLng) / cellLng));
+        return r * side + c;
+    }
+
+    private void link(int id, int cell) {
+        int first = head[cell];
+        next[id] = first;
+        prev[id] = NONE;
+        if (first != NONE) {
+            prev[first] = id;
+        }
+        head[cell] = id;
+        cellOf[id] = cell;
+        cellCounts[cell]++;
+    }
+
+    private void unlink(int id) {
+        int cell = cellOf[id];
+        if (prev[id] != NONE) {
+            next[prev[id]] = next[id];
+        } else {
+            head[cell] = next[id];
+        }
+        if (next[id] != NONE) {
+            prev[next[id]] = prev[id];
+        }
+        cellCounts[cell]--;
+    }
+
+    private void markDirty(int cell) {
+        long bit = 1L << cell;
+        if ((dirtyBits[cell >>> 6] & bit) == 0) {
+            dirtyBits[cell >>> 6] |= bit;
+            dirtyCells[dirtyCount++] = cell;
+        }
+    }
+
+    private int clamp(int v) {
+        return v < 0 ? 0 : (v >= side ? side - 1 : v);
+    }
+
+    private static void checkStyleId(int styleId) {
+        if (styleId < 0 || styleId > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Style id out of range: " + styleId);
+        }
+    }
+
+    private int check(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("id " + id + " of " + size);
+        }
+        return id;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.map;
+
+/**
+ * Times sequential loadStore against loadStoreParallel at 1M and 10M markers
+ * and checks that the parallel result is deterministic for a fixed seed and
+ * partition count.
+ *
+ * Usage: java -Xmx1g com.example.map.LoadBench [partitions]
+ */
+public class LoadBench {
+
+    public static void main(String[] args) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        int partitions = args.length > 0 ? Integer.parseInt(args[0]) : cores * 4;
+        System.out.println("Cores: " + cores + ", partitions: " + partitions);
+
+        MapDataSource ds = new MapDataSource(new ConcurrentMarkerStyleFactory());
+        ds.loadStore(100_000); // warm-up
+        ds.loadStoreParallel(100_000, 42, partitions);
+
+        for (int n : new int[]{1_000_000, 10_000_000}) {
+            long t0 = System.nanoTime();
+            MarkerStore seq = ds.loadStore(n);
+            long seqMs = (System.nanoTime() - t0) / 1_000_000;
+            long seqSize = seq.size();
+            seq = null; // let the next store reuse the heap
+
+            t0 = System.nanoTime();
+            MarkerStore par = ds.loadStoreParallel(n, 42, partitions);
+            long parMs = (System.nanoTime() - t0) / 1_000_000;
+            long first = checksum(par);
+            par = null;
+            long second = checksum(ds.loadStoreParallel(n, 42, partitions));
+
+            System.out.printf("%,11d markers: sequential %5d ms, parallel %5d ms, deterministic=%b%n",
+                    n, seqMs, parMs, first == second && seqSize == n);
+        }
+    }
+
+    private static long checksum(MarkerStore store) {
+        long h = 1;
+        for (int i = 0; i < store.size(); i++) {
+            h = 31 * h + Double.doubleToLongBits(store.lat(i));
+            h = 31 * h + Double.doubleToLongBits(store.lng(i));
+            h = 31 * h + store.styleId(i);
+        }
+        return h;
+    }
+}
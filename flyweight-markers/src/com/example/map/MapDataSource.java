@@ -3,6 +3,8 @@ package com.example.map;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
 
 /**
  * Generates markers for demo/testing.
@@ -18,11 +20,21 @@ import java.util.Random;
  */
 public class MapDataSource {
 
-    private static final String[] SHAPES = {"PIN", "CIRCLE", "SQUARE"};
-    private static final String[] COLORS = {"RED", "BLUE", "GREEN", "ORANGE"};
+    private static final MarkerShape[] SHAPES = {MarkerShape.PIN, MarkerShape.CIRCLE, MarkerShape.SQUARE};
+    private static final MarkerColor[] COLORS = {MarkerColor.RED, MarkerColor.BLUE, MarkerColor.GREEN, MarkerColor.ORANGE};
     private static final int[] SIZES = {10, 12, 14, 16};
+    private static final LabelStrategy LABELS = new PatternLabels("M-");
     //For intrinsic state
-    private final MarkerStyleFactory styleFactory = new MarkerStyleFactory();
+    private final MarkerStylePool styleFactory;
+
+    public MapDataSource() {
+        this(new MarkerStyleFactory());
+    }
+
+    /** Uses the given factory, e.g. a ConcurrentMarkerStyleFactory shared across loaders. */
+    public MapDataSource(MarkerStylePool styleFactory) {
+        this.styleFactory = styleFactory;
+    }
 
     public List<MapMarker> loadMarkers(int count) {
         Random rnd = new Random(7);
@@ -31,16 +43,80 @@ public class MapDataSource {
         for (int i = 0; i < count; i++) {
             double lat = 12.9000 + rnd.nextDouble() * 0.2000;
             double lng = 77.5000 + rnd.nextDouble() * 0.2000;
-            String label = "M-" + i;
 
             // Force many duplicates by choosing from small pools
-            String shape = SHAPES[rnd.nextInt(SHAPES.length)];
-            String color = COLORS[rnd.nextInt(COLORS.length)];
+            MarkerShape shape = SHAPES[rnd.nextInt(SHAPES.length)];
+            MarkerColor color = COLORS[rnd.nextInt(COLORS.length)];
             int size = SIZES[rnd.nextInt(SIZES.length)];
             boolean filled = rnd.nextBoolean();
             MarkerStyle style=styleFactory.get(shape,color,size,filled);
-            out.add(new MapMarker(lat, lng, label, style));
+            out.add(new LazyLabelMarker(lat, lng, LABELS, i, style)); // label "M-" + i, built only when asked for
         }
         return out;
     }
+
+    /**
+     * Same markers as loadMarkers(count) (same seed and draw order), written
+     * into a columnar MarkerStore instead of one MapMarker object per marker.
+     */
+    public MarkerStore loadStore(int count) {
+        Random rnd = new Random(7);
+        MarkerStore out = new MarkerStore(styleFactory, count);
+
+        for (int i = 0; i < count; i++) {
+            double lat = 12.9000 + rnd.nextDouble() * 0.2000;
+            double lng = 77.5000 + rnd.nextDouble() * 0.2000;
+
+            MarkerShape shape = SHAPES[rnd.nextInt(SHAPES.length)];
+            MarkerColor color = COLORS[rnd.nextInt(COLORS.length)];
+            int size = SIZES[rnd.nextInt(SIZES.length)];
+            boolean filled = rnd.nextBoolean();
+            out.add(lat, lng, styleFactory.getId(shape, color, size, filled));
+        }
+        return out;
+    }
+
+    /**
+     * Parallel variant of loadStore for large ingests.
+     *
+     * The rows are cut into {@code partitions} contiguous ranges, each filled on
+     * the common fork-join pool from its own SplittableRandom. The generators
+     * are split off one root seeded with {@code seed}, in partition order, so
+     * the result depends only on (count, seed, partitions), not on scheduling.
+     * The markers differ from loadStore's Random(7) sequence. Style ids are
+     * resolved through the factory once up front, so workers never touch it.
+     */
+    public MarkerStore loadStoreParallel(int count, long seed, int partitions) {
+        int parts = Math.max(1, Math.min(partitions, Math.max(1, count)));
+        int[] styleIds = new int[SHAPES.length * COLORS.length * SIZES.length * 2];
+        int k = 0;
+        for (MarkerShape shape : SHAPES) {
+            for (MarkerColor color : COLORS) {
+                for (int size : SIZES) {
+                    styleIds[k++] = styleFactory.getId(shape, color, size, false);
+                    styleIds[k++] = styleFactory.getId(shape, color, size, true);
+                }
+            }
+        }
+
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] rngs = new SplittableRandom[parts];
+        for (int p = 0; p < parts; p++) {
+            rngs[p] = root.split();
+        }
+
+        MarkerStore out = MarkerStore.preallocated(styleFactory, count);
+        IntStream.range(0, parts).parallel().forEach(p -> {
+            SplittableRandom rnd = rngs[p];
+            int from = (int) ((long) count * p / parts);
+            int to = (int) ((long) count * (p + 1) / parts);
+            for (int i = from; i < to; i++) {
+                double lat = 12.9000 + rnd.nextDouble() * 0.2000;
+                double lng = 77.5000 + rnd.nextDouble() * 0.2000;
+                int style = rnd.nextInt(styleIds.length);
+                out.set(i, lat, lng, styleIds[style]);
+            }
+        });
+        return out;
+    }
 }
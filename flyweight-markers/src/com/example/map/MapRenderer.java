@@ -1,12 +1,21 @@
 package com.example.map;
 
+import java.nio.channels.WritableByteChannel;
 import java.util.List;
+import java.util.Locale;
 
 /**
  * Renders markers to console (simulating a UI renderer).
+ *
+ * The buffered passes share one RenderBuffer, so a renderer is meant for
+ * one thread at a time. Numbers are formatted with Locale.ROOT on every path,
+ * so console and buffered output match whatever the default locale is.
  */
 public class MapRenderer {
 
+    private RenderBuffer buffer; // reused by the buffered passes, created on first use
+    private final DirtyCellWriter dirtyCells = new DirtyCellWriter();
+
     public void render(List<MapMarker> markers) {
         System.out.println("Rendering " + markers.size() + " markers...");
         int shown = 0;
@@ -24,8 +33,140 @@ public class MapRenderer {
         }
     }
 
+    /** Same output as render(List), iterating through a reusable cursor. */
+    public void render(MarkerView markers) {
+        System.out.println("Rendering " + markers.size() + " markers...");
+        int shown = 0;
+
+        MarkerCursor c = new MarkerCursor(markers);
+        while (c.next()) {
+            if (shown < 8) {
+                System.out.println(format(c.getLabel(), c.getLat(), c.getLng(), c.getStyle()));
+                shown++;
+            }
+        }
+
+        if (markers.size() > shown) {
+            System.out.println("... (" + (markers.size() - shown) + " more not shown)");
+        }
+    }
+
+    /**
+     * Buffered pipeline: writes through a RenderBuffer to the channel in large
+     * chunks. With all=false the output matches render(MarkerView); with
+     * all=true every marker is written, which is what throughput runs need.
+     */
+    public void render(MarkerView markers, WritableByteChannel out, boolean all) {
+        RenderBuffer buf = buffer(out);
+        int n = markers.size();
+        int limit = all ? n : Math.min(8, n);
+        buf.append("Rendering ").append(n).append(" markers...").newline();
+        for (int row = 0; row < limit; row++) {
+            markers.appendLabel(row, buf);
+            buf.append(" @ (")
+                    .appendFixed(markers.lat(row), 4).append(", ")
+                    .appendFixed(markers.lng(row), 4).append(") style=");
+            appendStyle(buf, markers.style(row));
+            buf.newline();
+        }
+        if (n > limit) {
+            buf.append("... (").append(n - limit).append(" more not shown)").newline();
+        }
+        buf.flush();
+    }
+
+    /**
+     * Incremental pass for a live layer: re-emits every marker of each dirty
+     * cell (and nothing else), then leaves the layer with no dirty cells.
+     */
+    public void renderDirty(LiveMarkerLayer layer, WritableByteChannel out) {
+        RenderBuffer buf = buffer(out);
+        buf.append("Re-rendering ").append(layer.dirtyCellCount()).append(" dirty cells...").newline();
+        dirtyCells.layer = layer;
+        dirtyCells.buf = buf;
+        layer.drainDirty(dirtyCells);
+        dirtyCells.layer = null;
+        buf.flush();
+    }
+
+    // reused cell visitor for renderDirty, so a frame allocates nothing
+    private static final class DirtyCellWriter implements CellVisitor {
+        LiveMarkerLayer layer;
+        RenderBuffer buf;
+
+        @Override
+        public void visit(int cell) {
+            buf.append("cell ").append(cell).append(": ").append(layer.cellSize(cell)).append(" markers").newline();
+            for (int id = layer.firstInCell(cell); id >= 0; id = layer.nextInCell(id)) {
+                layer.appendLabel(id, buf);
+                buf.append(" @ (")
+                        .appendFixed(layer.lat(id), 4).append(", ")
+                        .appendFixed(layer.lng(id), 4).append(") style=");
+                appendStyle(buf, layer.style(id));
+                buf.newline();
+            }
+        }
+    }
+
+    /** Renders only the markers inside the viewport, found through the grid index. */
+    public void render(MarkerView markers, SpatialGrid grid,
+                       double minLat, double minLng, double maxLat, double maxLng) {
+        MarkerCursor c = new MarkerCursor(markers);
+        int[] shown = {0};
+        System.out.printf(Locale.ROOT, "Rendering viewport (%.4f, %.4f) - (%.4f, %.4f)...%n", minLat, minLng, maxLat, maxLng);
+        int found = grid.query(minLat, minLng, maxLat, maxLng, row -> {
+            if (shown[0] < 8) {
+                c.moveTo(row);
+                System.out.println(format(c.getLabel(), c.getLat(), c.getLng(), c.getStyle()));
+                shown[0]++;
+            }
+        });
+        if (found > shown[0]) {
+            System.out.println("... (" + (found - shown[0]) + " more not shown)");
+        }
+    }
+
+    /**
+     * Renders the viewport as clusters, at the most detailed zoom level whose
+     * cells covering the viewport stay within maxCells.
+     */
+    public void renderClusters(ClusterIndex clusters, double minLat, double minLng,
+                               double maxLat, double maxLng, int maxCells) {
+        int zoom = clusters.levelFor(minLat, minLng, maxLat, maxLng, maxCells);
+        int[] shown = {0};
+        System.out.println("Rendering clusters at zoom " + zoom + "...");
+        int found = clusters.query(zoom, minLat, minLng, maxLat, maxLng, (lat, lng, count, style) -> {
+            if (shown[0] < 8) {
+                System.out.println(String.format(Locale.ROOT, "cluster x%d @ (%.4f, %.4f) style=%s", count, lat, lng, style));
+                shown[0]++;
+            }
+        });
+        if (found > shown[0]) {
+            System.out.println("... (" + (found - shown[0]) + " more clusters not shown)");
+        }
+    }
+
+    // one 64 KB buffer per renderer, reset at the start of each buffered pass
+    private RenderBuffer buffer(WritableByteChannel out) {
+        if (buffer == null) {
+            buffer = new RenderBuffer(out);
+        } else {
+            buffer.reset(out);
+        }
+        return buffer;
+    }
+
+    // same text as MarkerStyle.toString(), written field by field so no String is built per marker
+    private static void appendStyle(RenderBuffer buf, MarkerStyle style) {
+        buf.append(style.getShape()).append('|').append(style.getColor()).append('|')
+                .append(style.getSize()).append('|').append(style.isFilled() ? 'F' : 'O');
+    }
+
     private String format(MapMarker m) {
-        return String.format("%s @ (%.4f, %.4f) style=%s",
-                m.getLabel(), m.getLat(), m.getLng(), m.getStyle());
+        return format(m.getLabel(), m.getLat(), m.getLng(), m.getStyle());
+    }
+
+    private String format(String label, double lat, double lng, MarkerStyle style) {
+        return String.format(Locale.ROOT, "%s @ (%.4f, %.4f) style=%s", label, lat, lng, style);
     }
 }
@@ -0,0 +1,25 @@
+package com.example.map;
+
+/**
+ * Marker colors known to the style factory's dense lookup table.
+ */
+public enum MarkerColor {
+    RED, BLUE, GREEN, ORANGE;
+
+    /**
+     * Enum for the given name, or null if it is null or not a known color, so
+     * the factory keeps such names as fallback styles. Never allocates.
+     */
+    public static MarkerColor of(String name) {
+        if (name == null) {
+            return null;
+        }
+        switch (name) {
+            case "RED": return RED;
+            case "BLUE": return BLUE;
+            case "GREEN": return GREEN;
+            case "ORANGE": return ORANGE;
+            default: return null;
+        }
+    }
+}
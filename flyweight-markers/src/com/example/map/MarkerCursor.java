@@ -0,0 +1,50 @@
+package com.example.map;
+
+/**
+ * Flyweight cursor over a {@link MarkerView}: one reusable object that points
+ * at a row and exposes it with MapMarker-style getters, so iterating a store
+ * does not allocate a MapMarker per marker.
+ *
+ * <pre>
+ *   MarkerCursor c = new MarkerCursor(store);
+ *   while (c.next()) { use(c.getLat(), c.getLng(), c.getStyle()); }
+ * </pre>
+ */
+public class MarkerCursor {
+
+    private final MarkerView view;
+    private int row = -1;
+
+    public MarkerCursor(MarkerView view) {
+        this.view = view;
+    }
+
+    /** Advances to the next row; false once past the end. */
+    public boolean next() {
+        if (row + 1 >= view.size()) {
+            row = view.size();
+            return false;
+        }
+        row++;
+        return true;
+    }
+
+    /** Positions the cursor on the given row. */
+    public MarkerCursor moveTo(int row) {
+        if (row < 0 || row >= view.size()) {
+            throw new IndexOutOfBoundsException("row " + row + " of " + view.size());
+        }
+        this.row = row;
+        return this;
+    }
+
+    public void reset() {
+        row = -1;
+    }
+
+    public int getRow() { return row; }
+    public double getLat() { return view.lat(row); }
+    public double getLng() { return view.lng(row); }
+    public String getLabel() { return view.label(row); }
+    public MarkerStyle getStyle() { return view.style(row); }
+}
@@ -0,0 +1,256 @@
+package com.example.map;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary marker file, read back through a memory mapping.
+ *
+ * <pre>
+ *   header      magic "MRKR", version, count, styleCount, recordsOffset(long), heapOffset(long)
+ *   styles      styleCount x (shape, color as 1-byte length + UTF-8; size int; filled byte)
+ *   records     count x 16 bytes: lat int, lng int (fixed point, 1e-7 degrees),
+ *               style index short, 2 bytes padding, label offset int
+ *   label heap  per label: unsigned short length + UTF-8 bytes
+ * </pre>
+ *
+ * open() only reads the header and style dictionary; every row accessor reads
+ * straight from the mapped records, so the cost of a cold load is the page
+ * faults of whatever rows are touched. Coordinates are quantised to 1e-7
+ * degrees (about 1 cm), so they can differ from the written doubles in the 8th
+ * decimal.
+ */
+public class MarkerFile implements MarkerView {
+
+    private static final int MAGIC = 0x4D524B52; // "MRKR"
+    private static final int VERSION = 1;
+    private static final int RECORD_BYTES = 16;
+    private static final double SCALE = 1e7;
+
+    private final int size;
+    private final MarkerStyle[] styles;
+    private final ByteBuffer records;
+    private final ByteBuffer heap;
+
+    private MarkerFile(int size, MarkerStyle[] styles, ByteBuffer records, ByteBuffer heap) {
+        this.size = size;
+        this.styles = styles;
+        this.records = records;
+        this.heap = heap;
+    }
+
+    /** Writes every row of the view to path, replacing any existing file. */
+    public static void write(MarkerView markers, Path path) throws IOException {
+        int count = markers.size();
+        // flyweights repeat by reference, so rows are matched by identity and
+        // only a new instance pays for a toString() key (equal copies share an
+        // entry, and a view handing out fresh copies per call falls back to it)
+        Map<MarkerStyle, Integer> styleIndex = new IdentityHashMap<>();
+        Map<String, Integer> byKey = new HashMap<>();
+        List<MarkerStyle> dictionary = new ArrayList<>();
+        for (int row = 0; row < count; row++) {
+            MarkerStyle s = markers.style(row);
+            if (!styleIndex.containsKey(s)) {
+                Integer index = byKey.putIfAbsent(s.toString(), dictionary.size());
+                if (index == null) {
+                    index = dictionary.size();
+                    dictionary.add(s);
+                }
+                styleIndex.put(s, index);
+            }
+        }
+        if (dictionary.size() > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many distinct styles: " + dictionary.size());
+        }
+
+        ByteBuffer dict = ByteBuffer.allocate(dictionary.size() * (2 * 256 + 5));
+        for (MarkerStyle s : dictionary) {
+            putShortString(dict, s.getShape());
+            putShortString(dict, s.getColor());
+            dict.putInt(s.getSize());
+            dict.put((byte) (s.isFilled() ? 1 : 0));
+        }
+        dict.flip();
+
+        long recordsOffset = 32 + dict.remaining();
+        long heapOffset = recordsOffset + (long) count * RECORD_BYTES;
+
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(32);
+            header.putInt(MAGIC).putInt(VERSION).putInt(count).putInt(dictionary.size())
+                    .putLong(recordsOffset).putLong(heapOffset).flip();
+            writeFully(ch, header, 0);
+            writeFully(ch, dict, 32);
+
+            // records and heap are streamed through two buffers; both regions' offsets are known up front
+            ByteBuffer rec = ByteBuffer.allocate(64 * 1024);
+            ByteBuffer labels = ByteBuffer.allocate(64 * 1024);
+            long recPos = recordsOffset;
+            long heapPos = heapOffset;
+            long labelOffset = 0;
+            for (int row = 0; row < count; row++) {
+                byte[] label = markers.label(row).getBytes(StandardCharsets.UTF_8);
+                if (label.length > 0xFFFF) {
+                    throw new IllegalArgumentException("Label too long at row " + row);
+                }
+                if (labelOffset > Integer.MAX_VALUE) {
+                    throw new IllegalArgumentException("Label heap exceeds 2 GB at row " + row);
+                }
+                if (rec.remaining() < RECORD_BYTES) {
+                    recPos += flushAt(ch, rec, recPos);
+                }
+                MarkerStyle style = markers.style(row);
+                Integer index = styleIndex.get(style);
+                if (index == null && (index = byKey.get(style.toString())) == null) {
+                    throw new IllegalArgumentException("Style of row " + row + " changed during write: " + style);
+                }
+                rec.putInt(toFixed(markers.lat(row), 90, row))
+                        .putInt(toFixed(markers.lng(row), 180, row))
+                        .putShort((short) (int) index)
+                        .putShort((short) 0)
+                        .putInt((int) labelOffset);
+
+                if (labels.remaining() < 2 + label.length) {
+                    heapPos += flushAt(ch, labels, heapPos);
+                    if (labels.capacity() < 2 + label.length) {
+                        labels = ByteBuffer.allocate(2 + label.length);
+                    }
+                }
+                labels.putShort((short) label.length).put(label);
+                labelOffset += 2 + label.length;
+            }
+            flushAt(ch, rec, recPos);
+            flushAt(ch, labels, heapPos);
+        }
+    }
+
+    /**
+     * Maps the file read-only. Styles are resolved once through the factory,
+     * so rows share its flyweights. The mapping stays valid after this
+     * returns and is released when the MarkerFile is garbage collected.
+     */
+    public static MarkerFile open(Path path, MarkerStylePool factory) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = ch.size();
+            ByteBuffer header = ByteBuffer.allocate(32);
+            while (header.hasRemaining() && ch.read(header, header.position()) > 0) {
+                // keep reading until the header is complete or the file ends
+            }
+            header.flip();
+            if (header.remaining() < 32 || header.getInt() != MAGIC) {
+                throw new IOException("Not a marker file: " + path);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported marker file version " + version + ": " + path);
+            }
+            int count = header.getInt();
+            int styleCount = header.getInt();
+            long recordsOffset = header.getLong();
+            long heapOffset = header.getLong();
+            if (count < 0 || recordsOffset < 32 || heapOffset != recordsOffset + (long) count * RECORD_BYTES
+                    || heapOffset > fileSize) {
+                throw new IOException("Corrupt marker file header: " + path);
+            }
+            if (heapOffset - recordsOffset > Integer.MAX_VALUE || fileSize - heapOffset > Integer.MAX_VALUE) {
+                throw new IOException("Marker file regions larger than 2 GB are not supported: " + path);
+            }
+
+            ByteBuffer dict = ch.map(FileChannel.MapMode.READ_ONLY, 32, recordsOffset - 32);
+            MarkerStyle[] styles = new MarkerStyle[styleCount];
+            for (int i = 0; i < styleCount; i++) {
+                String shape = getShortString(dict);
+                String color = getShortString(dict);
+                styles[i] = factory.get(shape, color, dict.getInt(), dict.get() != 0);
+            }
+
+            MappedByteBuffer records = ch.map(FileChannel.MapMode.READ_ONLY, recordsOffset, heapOffset - recordsOffset);
+            MappedByteBuffer heap = ch.map(FileChannel.MapMode.READ_ONLY, heapOffset, fileSize - heapOffset);
+            return new MarkerFile(count, styles, records, heap);
+        }
+    }
+
+    @Override
+    public int size() { return size; }
+
+    @Override
+    public double lat(int row) { return records.getInt(offset(row)) / SCALE; }
+
+    @Override
+    public double lng(int row) { return records.getInt(offset(row) + 4) / SCALE; }
+
+    /** Index into this file's style dictionary (not a factory id). */
+    public int styleIndex(int row) { return records.getShort(offset(row) + 8); }
+
+    @Override
+    public MarkerStyle style(int row) { return styles[styleIndex(row)]; }
+
+    @Override
+    public String label(int row) {
+        int at = records.getInt(offset(row) + 12);
+        int len = heap.getShort(at) & 0xFFFF;
+        byte[] bytes = new byte[len];
+        heap.get(at + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void appendLabel(int row, RenderBuffer out) {
+        int at = records.getInt(offset(row) + 12);
+        out.appendUtf8(heap, at + 2, heap.getShort(at) & 0xFFFF);
+    }
+
+    private int offset(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("row " + row + " of " + size);
+        }
+        return row * RECORD_BYTES;
+    }
+
+    private static int toFixed(double degrees, int limit, int row) {
+        if (!(Math.abs(degrees) <= limit)) {
+            throw new IllegalArgumentException("Coordinate out of range at row " + row + ": " + degrees);
+        }
+        return (int) Math.round(degrees * SCALE);
+    }
+
+    private static void putShortString(ByteBuffer buf, String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 255) {
+            throw new IllegalArgumentException("Style name longer than 255 UTF-8 bytes: " + s);
+        }
+        buf.put((byte) bytes.length).put(bytes);
+    }
+
+    private static String getShortString(ByteBuffer buf) {
+        byte[] bytes = new byte[buf.get() & 0xFF];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // writes the buffer's contents at pos, clears it, and returns the byte count
+    private static int flushAt(FileChannel ch, ByteBuffer buf, long pos) throws IOException {
+        buf.flip();
+        int n = buf.remaining();
+        writeFully(ch, buf, pos);
+        buf.clear();
+        return n;
+    }
+
+    private static void writeFully(FileChannel ch, ByteBuffer buf, long pos) throws IOException {
+        while (buf.hasRemaining()) {
+            pos += ch.write(buf, pos);
+        }
+    }
+}
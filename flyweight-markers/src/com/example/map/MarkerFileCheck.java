@@ -0,0 +1,57 @@
+package com.example.map;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes n markers to a MarkerFile, then compares building them in memory
+ * (loadStore) against opening the file and touching every row once. open()
+ * itself only reads the header, so the scan time is essentially page faults.
+ * Run it twice with the file kept to see a warm page cache.
+ *
+ * Usage: java -Xmx1g com.example.map.MarkerFileCheck [markers] [file]
+ */
+public class MarkerFileCheck {
+
+    public static void main(String[] args) throws IOException {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        Path file = args.length > 1 ? Path.of(args[1]) : Files.createTempFile("markers", ".bin");
+
+        MapDataSource ds = new MapDataSource();
+        long t0 = System.nanoTime();
+        MarkerStore store = ds.loadStore(n);
+        long buildMs = (System.nanoTime() - t0) / 1_000_000;
+
+        if (args.length < 2 || !Files.exists(file) || Files.size(file) == 0) {
+            t0 = System.nanoTime();
+            MarkerFile.write(store, file);
+            System.out.printf("Wrote %,d markers (%,d bytes, %.1f bytes/marker) in %d ms%n",
+                    n, Files.size(file), Files.size(file) / (double) n, (System.nanoTime() - t0) / 1_000_000);
+        }
+        MarkerStylePool styles = store.getStyles();
+        store = null;
+
+        t0 = System.nanoTime();
+        MarkerFile mapped = MarkerFile.open(file, styles);
+        long openUs = (System.nanoTime() - t0) / 1_000;
+
+        t0 = System.nanoTime();
+        double sum = 0;
+        int styleSum = 0;
+        for (int i = 0; i < mapped.size(); i++) {
+            sum += mapped.lat(i) + mapped.lng(i);
+            styleSum += mapped.styleIndex(i);
+        }
+        long scanMs = (System.nanoTime() - t0) / 1_000_000;
+
+        System.out.printf("loadStore (in-memory build): %d ms%n", buildMs);
+        System.out.printf("MarkerFile.open: %d us, first full scan: %d ms (checksum %.1f/%d)%n",
+                openUs, scanMs, sum, styleSum);
+        System.out.println("Label of last row: " + mapped.label(mapped.size() - 1));
+
+        if (args.length < 2) {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.map;
+
+/**
+ * Marker shapes known to the style factory's dense lookup table.
+ */
+public enum MarkerShape {
+    PIN, CIRCLE, SQUARE;
+
+    /**
+     * Enum for the given name, or null if it is null or not a known shape, so
+     * the factory keeps such names as fallback styles. Never allocates.
+     */
+    public static MarkerShape of(String name) {
+        if (name == null) {
+            return null;
+        }
+        switch (name) {
+            case "PIN": return PIN;
+            case "CIRCLE": return CIRCLE;
+            case "SQUARE": return SQUARE;
+            default: return null;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.map;
+
+import java.util.Arrays;
+
+/**
+ * Columnar marker storage: extrinsic state in primitive arrays, intrinsic
+ * state as a short id into a {@link MarkerStylePool}.
+ *
+ * Each marker costs 18 bytes (two doubles and a short) instead of a MapMarker
+ * object with its header, fields and label String. Labels come from a
+ * {@link LabelStrategy}; by default they are generated on demand from the
+ * row index ("M-" + row), matching MapDataSource.
+ */
+public class MarkerStore implements MarkerView {
+
+    /** styleId of a preallocated row that set() has not filled yet; no style has it. */
+    public static final short UNSET = -1;
+
+    private final MarkerStylePool styles;
+    private final LabelStrategy labels;
+
+    private double[] lats;
+    private double[] lngs;
+    private short[] styleIds;
+    private int size;
+
+    public MarkerStore(MarkerStylePool styles, int initialCapacity) {
+        this(styles, "M-", initialCapacity);
+    }
+
+    public MarkerStore(MarkerStylePool styles, String labelPrefix, int initialCapacity) {
+        this(styles, new PatternLabels(labelPrefix), initialCapacity);
+    }
+
+    /**
+     * Labels are looked up by row, so a strategy holding per-row labels
+     * (InternedLabels, Utf8LabelHeap) must be filled in the same row order.
+     */
+    public MarkerStore(MarkerStylePool styles, LabelStrategy labels, int initialCapacity) {
+        int cap = Math.max(1, initialCapacity);
+        this.styles = styles;
+        this.labels = labels;
+        this.lats = new double[cap];
+        this.lngs = new double[cap];
+        this.styleIds = new short[cap];
+    }
+
+    /**
+     * A store that already holds {@code size} unset rows, to be filled with
+     * set(). Distinct rows may be set from different threads; the writes are
+     * visible to readers after the writers are joined. An unset row has
+     * styleId UNSET and style() on it throws IllegalStateException.
+     */
+    public static MarkerStore preallocated(MarkerStylePool styles, int size) {
+        MarkerStore store = new MarkerStore(styles, size);
+        Arrays.fill(store.styleIds, 0, size, UNSET);
+        store.size = size;
+        return store;
+    }
+
+    /** Overwrites an existing row. */
+    public void set(int row, double lat, double lng, int styleId) {
+        check(row);
+        if (styleId < 0 || styleId > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Style id out of range: " + styleId);
+        }
+        lats[row] = lat;
+        lngs[row] = lng;
+        styleIds[row] = (short) styleId;
+    }
+
+    /** Appends a marker and returns its row index. */
+    public int add(double lat, double lng, int styleId) {
+        if (styleId < 0 || styleId > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Style id out of range: " + styleId);
+        }
+        if (size == lats.length) {
+            int cap = lats.length * 2;
+            lats = Arrays.copyOf(lats, cap);
+            lngs = Arrays.copyOf(lngs, cap);
+            styleIds = Arrays.copyOf(styleIds, cap);
+        }
+        lats[size] = lat;
+        lngs[size] = lng;
+        styleIds[size] = (short) styleId;
+        return size++;
+    }
+
+    @Override
+    public int size() { return size; }
+
+    @Override
+    public double lat(int row) { return lats[check(row)]; }
+
+    @Override
+    public double lng(int row) { return lngs[check(row)]; }
+
+    public int styleId(int row) { return styleIds[check(row)]; }
+
+    @Override
+    public MarkerStyle style(int row) {
+        short id = styleIds[check(row)];
+        if (id == UNSET) {
+            throw new IllegalStateException("Row " + row + " of a preallocated store was never set");
+        }
+        return styles.byId(id);
+    }
+
+    @Override
+    public String label(int row) { return labels.label(check(row)); }
+
+    @Override
+    public void appendLabel(int row, RenderBuffer out) { labels.appendTo(check(row), out); }
+
+    public MarkerStylePool getStyles() { return styles; }
+
+    private int check(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("row " + row + " of " + size);
+        }
+        return row;
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.map;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -12,24 +14,83 @@ import java.util.Map;
  *
  * After refactor:
  * - MapDataSource should call this factory to obtain shared MarkerStyle instances.
+ *
+ * Styles with a known shape and color and a size below MAX_DENSE_SIZE are
+ * looked up in a dense array indexed by a packed int
+ * (shape ordinal, color ordinal, size, filled bit). A hit is one array load,
+ * with no key String and no hashing. Any other configuration falls back to a
+ * String-keyed map. Every pooled style has a small integer id: its packed
+ * index for dense styles, and DENSE_SLOTS + n for fallback styles. Columnar
+ * stores such as MarkerStore keep that id as a short. Not thread-safe; see
+ * ConcurrentMarkerStyleFactory for the same pool shared across threads.
  */
-public class MarkerStyleFactory {
+public class MarkerStyleFactory implements MarkerStylePool {
 
-    private final Map<String, MarkerStyle> cache = new HashMap<>();
+    static final int MAX_DENSE_SIZE = 64;
+    // values() clones its array, so the counts are read once here, not per lookup
+    private static final int SHAPE_COUNT = MarkerShape.values().length;
+    private static final int COLOR_COUNT = MarkerColor.values().length;
+    static final int DENSE_SLOTS = SHAPE_COUNT * COLOR_COUNT * MAX_DENSE_SIZE * 2;
 
-    public MarkerStyle get(String shape, String color, int size, boolean filled) {
-        String key = shape + "|" + color + "|" + size + "|" + (filled ? "F" : "O");
-        
-    // TODO: return cached instance if present; otherwise create, cache, and return.
-    if(cache.containsKey(key)){
-        return cache.get(key);
+    private final MarkerStyle[] dense = new MarkerStyle[DENSE_SLOTS];
+    private final Map<String, Integer> fallback = new HashMap<>();
+    private final List<MarkerStyle> fallbackPool = new ArrayList<>();
+    private int created;
+
+    @Override
+    public int getId(MarkerShape shape, MarkerColor color, int size, boolean filled) {
+        if (size < 0 || size >= MAX_DENSE_SIZE) {
+            return fallbackId(shape.name(), color.name(), size, filled);
+        }
+        int id = packedIndex(shape, color, size, filled);
+        if (dense[id] == null) {
+            dense[id] = new MarkerStyle(shape.name(), color.name(), size, filled);
+            created++;
+        }
+        return id;
     }
-    MarkerStyle style=new MarkerStyle(shape, color, size, filled);
-    cache.put(key,style);
-    return style;
+
+    @Override
+    public int getId(String shape, String color, int size, boolean filled) {
+        MarkerShape s = MarkerShape.of(shape);
+        MarkerColor c = MarkerColor.of(color);
+        if (s != null && c != null) {
+            return getId(s, c, size, filled);
+        }
+        return fallbackId(shape, color, size, filled);
+    }
+
+    @Override
+    public MarkerStyle byId(int id) {
+        if (id < DENSE_SLOTS) {
+            MarkerStyle style = dense[id];
+            if (style == null) {
+                throw new IllegalArgumentException("No style with id " + id);
+            }
+            return style;
+        }
+        return fallbackPool.get(id - DENSE_SLOTS);
     }
 
+    @Override
     public int cacheSize() {
-        return cache.size();
+        return created;
+    }
+
+    static int packedIndex(MarkerShape shape, MarkerColor color, int size, boolean filled) {
+        int sc = shape.ordinal() * COLOR_COUNT + color.ordinal();
+        return (sc * MAX_DENSE_SIZE + size) * 2 + (filled ? 1 : 0);
+    }
+
+    private int fallbackId(String shape, String color, int size, boolean filled) {
+        String key = shape + "|" + color + "|" + size + "|" + (filled ? "F" : "O");
+        Integer id = fallback.get(key);
+        if (id == null) {
+            id = DENSE_SLOTS + fallbackPool.size();
+            fallbackPool.add(new MarkerStyle(shape, color, size, filled));
+            fallback.put(key, id);
+            created++;
+        }
+        return id;
     }
 }
@@ -0,0 +1,31 @@
+package com.example.map;
+
+/**
+ * A pool of shared MarkerStyle flyweights, each with a small integer id.
+ *
+ * Implemented by MarkerStyleFactory (single-threaded) and
+ * ConcurrentMarkerStyleFactory (safe for parallel loaders). Both use the
+ * same id layout, so stores and indexes work with either.
+ */
+public interface MarkerStylePool {
+
+    /** Id of the shared style for this configuration, creating it on first use. */
+    int getId(MarkerShape shape, MarkerColor color, int size, boolean filled);
+
+    /** Id of the shared style for this configuration, creating it on first use. */
+    int getId(String shape, String color, int size, boolean filled);
+
+    /** The shared style with the given id. */
+    MarkerStyle byId(int id);
+
+    /** Number of distinct styles created so far. */
+    int cacheSize();
+
+    default MarkerStyle get(MarkerShape shape, MarkerColor color, int size, boolean filled) {
+        return byId(getId(shape, color, size, filled));
+    }
+
+    default MarkerStyle get(String shape, String color, int size, boolean filled) {
+        return byId(getId(shape, color, size, filled));
+    }
+}
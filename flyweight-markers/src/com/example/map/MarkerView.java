@@ -0,0 +1,25 @@
+package com.example.map;
+
+/**
+ * Read-only, index-addressed view over a set of markers.
+ *
+ * Lets renderers walk columnar or file-backed marker data without a MapMarker
+ * object per row; use {@link MarkerCursor} for a MapMarker-like accessor.
+ */
+public interface MarkerView {
+
+    int size();
+
+    double lat(int row);
+
+    double lng(int row);
+
+    MarkerStyle style(int row);
+
+    String label(int row);
+
+    /** Writes the row's label into the buffer; implementations can avoid building a String. */
+    default void appendLabel(int row, RenderBuffer out) {
+        out.append(label(row));
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.map;
+
+/**
+ * Callback for index queries; receives the row of each matching marker.
+ */
+@FunctionalInterface
+public interface MarkerVisitor {
+    void visit(int row);
+}
@@ -0,0 +1,22 @@
+package com.example.map;
+
+/**
+ * Labels computed from the row index as prefix + row ("M-0", "M-1", ...).
+ * Stores nothing per marker.
+ */
+public class PatternLabels implements LabelStrategy {
+
+    private final String prefix;
+
+    public PatternLabels(String prefix) {
+        this.prefix = prefix;
+    }
+
+    @Override
+    public String label(int row) { return prefix + row; }
+
+    @Override
+    public void appendTo(int row, RenderBuffer out) {
+        out.append(prefix).append(row);
+    }
+}
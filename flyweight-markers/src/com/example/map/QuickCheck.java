@@ -1,32 +1,229 @@
 package com.example.map;
 
-import java.util.HashSet;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
 
 /**
  * Quick validation:
- * - counts unique style object references used by markers.
+ * - counts unique style object references used by markers
+ *   (bytes per marker are measured by FootprintCheck).
  *
  * Starter should report a large number (close to marker count).
  * After Flyweight refactor, it should report a small number
  * (bounded by unique combinations of shape/color/size/filled).
+ *
+ * Then races many threads on one ConcurrentMarkerStyleFactory and checks, by
+ * reference (not identityHashCode, which can collide), that each style
+ * configuration resolved to exactly one instance.
+ *
+ * Finally writes the store to a MarkerFile, maps it back and checks the rows
+ * (coordinates within the file's 1e-7 degree quantisation), also through a
+ * view that hands out a new, equal MarkerStyle on every call, and checks that
+ * each LabelStrategy returns and appends the labels it was given.
  */
 public class QuickCheck {
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws InterruptedException, IOException {
         int n = 20_000;
 
         MapDataSource ds = new MapDataSource();
         List<MapMarker> markers = ds.loadMarkers(n);
 
-        Set<Integer> identities = new HashSet<>();
+        // identity set rather than identityHashCode values, which can collide
+        Set<MarkerStyle> identities = Collections.newSetFromMap(new IdentityHashMap<>());
         for (MapMarker m : markers) {
-            identities.add(System.identityHashCode(m.getStyle()));
+            identities.add(m.getStyle());
         }
 
         System.out.println("Markers: " + n);
         System.out.println("Unique style instances (by identity): " + identities.size());
         System.out.println("Expected after Flyweight: <= " + (3 * 4 * 4 * 2) + " (shape*color*size*filled)");
+
+        // Columnar store: same markers, styles resolved by id from the factory pool.
+        MarkerStore store = ds.loadStore(n);
+        Set<MarkerStyle> storeIdentities = Collections.newSetFromMap(new IdentityHashMap<>());
+        int mismatches = 0;
+        MarkerCursor c = new MarkerCursor(store);
+        while (c.next()) {
+            MapMarker m = markers.get(c.getRow());
+            storeIdentities.add(c.getStyle());
+            if (m.getLat() != c.getLat() || m.getLng() != c.getLng()
+                    || m.getStyle() != c.getStyle() || !m.getLabel().equals(c.getLabel())) {
+                mismatches++;
+            }
+        }
+        System.out.println("MarkerStore unique styles: " + storeIdentities.size()
+                + ", rows differing from loadMarkers: " + mismatches);
+
+        checkConcurrentFactory();
+        checkMarkerFile(store);
+        checkLabels(n);
+    }
+
+    private static void checkLabels(int n) {
+        String[] expected = new String[n];
+        InternedLabels interned = new InternedLabels(n);
+        Utf8LabelHeap heap = new Utf8LabelHeap(n);
+        for (int i = 0; i < n; i++) {
+            expected[i] = (i % 3 == 0 ? "Caf\u00e9 " : "Stop ") + (i % 500); // repeats, non-ASCII
+            interned.add(expected[i]);
+            heap.add(expected[i]);
+        }
+        LabelStrategy pattern = new PatternLabels("Stop ");
+        int mismatches = 0;
+        for (int i = 0; i < n; i++) {
+            if (!labelMatches(interned, i, expected[i]) || !labelMatches(heap, i, expected[i])
+                    || !labelMatches(pattern, i, "Stop " + i)) {
+                mismatches++;
+            }
+        }
+        System.out.println("\nLabels: " + interned.distinctCount() + " distinct of " + n
+                + ", UTF-8 heap " + heap.heapBytes() + " bytes, rows with a wrong label: " + mismatches);
+    }
+
+    private static boolean labelMatches(LabelStrategy labels, int row, String expected) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        RenderBuffer buf = new RenderBuffer(Channels.newChannel(bytes));
+        labels.appendTo(row, buf);
+        buf.flush();
+        return labels.label(row).equals(expected)
+                && new String(bytes.toByteArray(), StandardCharsets.UTF_8).equals(expected);
+    }
+
+    private static void checkMarkerFile(MarkerStore store) throws IOException {
+        Path file = Files.createTempFile("markers", ".bin");
+        try {
+            MarkerFile.write(store, file);
+            MarkerFile mapped = MarkerFile.open(file, store.getStyles());
+            int mismatches = 0;
+            for (int i = 0; i < store.size(); i++) {
+                if (Math.abs(store.lat(i) - mapped.lat(i)) > 0.6e-7 || Math.abs(store.lng(i) - mapped.lng(i)) > 0.6e-7
+                        || store.style(i) != mapped.style(i) || !store.label(i).equals(mapped.label(i))) {
+                    mismatches++;
+                }
+            }
+            System.out.println("\nMarkerFile: " + Files.size(file) + " bytes for " + mapped.size()
+                    + " markers, rows differing from the store: " + mismatches);
+            new MapRenderer().render(mapped);
+
+            MarkerFile.write(new CopiedStyles(store), file);
+            mapped = MarkerFile.open(file, store.getStyles());
+            mismatches = 0;
+            for (int i = 0; i < store.size(); i++) {
+                if (store.style(i) != mapped.style(i)) {
+                    mismatches++;
+                }
+            }
+            System.out.println("MarkerFile from non-factory styles: rows with a wrong style: " + mismatches);
+
+            // fallback styles keep any name, so the dictionary must round-trip non-ASCII text
+            MarkerStylePool styles = new MarkerStyleFactory();
+            MarkerStore named = new MarkerStore(styles, 2);
+            named.add(12.97, 77.59, styles.getId("\u2605STAR", "VERT-\u00c9MERAUDE", 14, true));
+            named.add(12.98, 77.60, styles.getId("PIN", "RED", 12, false));
+            MarkerFile.write(named, file);
+            mapped = MarkerFile.open(file, new MarkerStyleFactory());
+            boolean same = mapped.style(0).toString().equals(named.style(0).toString())
+                    && mapped.style(1).toString().equals(named.style(1).toString());
+            System.out.println("MarkerFile non-ASCII style names round-trip: " + same);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    // a view whose styles are equal to the store's but never the same instance twice
+    private static final class CopiedStyles implements MarkerView {
+        private final MarkerView rows;
+
+        CopiedStyles(MarkerView rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public int size() { return rows.size(); }
+
+        @Override
+        public double lat(int row) { return rows.lat(row); }
+
+        @Override
+        public double lng(int row) { return rows.lng(row); }
+
+        @Override
+        public String label(int row) { return rows.label(row); }
+
+        @Override
+        public MarkerStyle style(int row) {
+            MarkerStyle s = rows.style(row);
+            return new MarkerStyle(s.getShape(), s.getColor(), s.getSize(), s.isFilled());
+        }
+    }
+
+    private static void checkConcurrentFactory() throws InterruptedException {
+        int threads = 16;
+        int perThread = 50_000;
+        ConcurrentMarkerStyleFactory factory = new ConcurrentMarkerStyleFactory();
+        Map<String, Set<MarkerStyle>> instancesByKey = new ConcurrentHashMap<>();
+
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            final int seed = t;
+            new Thread(() -> {
+                try {
+                    start.await();
+                    // each thread loads its own markers, all sharing the one factory
+                    MapDataSource ds = new MapDataSource(factory);
+                    Set<MarkerStyle> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+                    MarkerStore store = ds.loadStore(perThread);
+                    for (int i = 0; i < store.size(); i++) {
+                        seen.add(store.style(i));
+                    }
+                    // odd configurations go through the fallback map
+                    seen.add(factory.get("STAR", "PURPLE", 10 + seed % 2, true));
+                    for (MarkerStyle s : seen) {
+                        instancesByKey.computeIfAbsent(s.toString(),
+                                k -> Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>())))
+                                .add(s);
+                    }
+                } catch (InterruptedException ignored) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        start.countDown();
+        done.await();
+
+        int duplicated = 0;
+        for (Set<MarkerStyle> instances : instancesByKey.values()) {
+            if (instances.size() != 1) {
+                duplicated++;
+            }
+        }
+        System.out.println("\nConcurrent factory: " + threads + " threads x " + perThread + " markers");
+        System.out.println("Style configurations: " + instancesByKey.size()
+                + ", factory cacheSize: " + factory.cacheSize()
+                + ", configurations with >1 instance: " + duplicated + " (expected 0)");
+
+        // as in the starter, a null name is just another (fallback) style
+        MarkerStylePool[] pools = {new MarkerStyleFactory(), factory};
+        for (MarkerStylePool pool : pools) {
+            MarkerStyle a = pool.get(null, "RED", 12, true);
+            MarkerStyle b = pool.get("PIN", null, 12, true);
+            System.out.println(pool.getClass().getSimpleName() + " null names: " + a + ", " + b
+                    + ", shared: " + (a == pool.get(null, "RED", 12, true)));
+        }
     }
 }
@@ -0,0 +1,142 @@
+package com.example.map;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Renders *all* markers two ways and times them: String.format + println per
+ * marker (what render() does today) against the buffered pipeline. Output
+ * goes to a discarding sink so we time formatting, not the terminal.
+ * Also checks both pipelines produce byte-identical output, that the console
+ * and buffered renderers agree under the default locale and Locale.GERMANY
+ * (comma decimals), and compares RenderBuffer.appendFixed() with
+ * String.format on ties, negative values near zero and random doubles.
+ *
+ * Usage: java -Xmx1g com.example.map.RenderBench
+ */
+public class RenderBench {
+
+    public static void main(String[] args) {
+        MapDataSource ds = new MapDataSource();
+        MapRenderer renderer = new MapRenderer();
+
+        MarkerStore check = ds.loadStore(30_000);
+        String expected = new String(formatted(check), StandardCharsets.UTF_8);
+        ByteArrayOutputStream got = new ByteArrayOutputStream();
+        renderer.render(check, Channels.newChannel(got), true);
+        System.out.println("Identical output: " + expected.equals(got.toString(StandardCharsets.UTF_8)));
+        checkLocales(renderer, check);
+        checkFixed();
+
+        PrintStream sink = new PrintStream(OutputStream.nullOutputStream(), false);
+        WritableByteChannel channel = Channels.newChannel(OutputStream.nullOutputStream());
+
+        for (int n : new int[]{30_000, 1_000_000}) {
+            MarkerStore store = ds.loadStore(n);
+            for (int round = 0; round < 3; round++) { // first rounds are warm-up
+                long t0 = System.nanoTime();
+                printAll(store, sink);
+                long formatNs = System.nanoTime() - t0;
+
+                t0 = System.nanoTime();
+                renderer.render(store, channel, true);
+                long bufferedNs = System.nanoTime() - t0;
+
+                if (round == 2) {
+                    System.out.printf("%,9d markers: format+println %6.1f ms (%,.0f/s), buffered %6.1f ms (%,.0f/s)%n",
+                            n, formatNs / 1e6, n * 1e9 / formatNs, bufferedNs / 1e6, n * 1e9 / bufferedNs);
+                }
+            }
+        }
+    }
+
+    // render(view) prints through String.format, render(view, channel, false) through RenderBuffer
+    private static void checkLocales(MapRenderer renderer, MarkerView markers) {
+        Locale original = Locale.getDefault();
+        PrintStream console = System.out;
+        try {
+            for (Locale locale : new Locale[]{original, Locale.GERMANY}) {
+                Locale.setDefault(locale);
+                ByteArrayOutputStream printed = new ByteArrayOutputStream();
+                System.setOut(new PrintStream(printed, true, StandardCharsets.UTF_8));
+                renderer.render(markers);
+                System.setOut(console);
+                ByteArrayOutputStream buffered = new ByteArrayOutputStream();
+                renderer.render(markers, Channels.newChannel(buffered), false);
+                System.out.println("Console vs buffered under " + locale + ": "
+                        + (printed.toString(StandardCharsets.UTF_8).equals(buffered.toString(StandardCharsets.UTF_8))
+                        ? "identical" : "DIFFERENT"));
+            }
+        } finally {
+            System.setOut(console);
+            Locale.setDefault(original);
+        }
+    }
+
+    private static void checkFixed() {
+        double[] edge = {12.34565, 0.00005, 1.00005, 2.5e-5, -12.34565, -0.0, 0.0, -1e-5, -4.999e-5, -5e-5,
+                -5.0001e-5, -1e-300, -Double.MIN_VALUE, 0.99995, 9.99995, 999999.99995, 123456789.00005};
+        SplittableRandom rnd = new SplittableRandom(11);
+        int n = edge.length + 20_001 * 2 + 200_000;
+        double[] values = new double[n];
+        int[] decimals = new int[n];
+        int k = 0;
+        for (double v : edge) {
+            decimals[k] = 4;
+            values[k++] = v;
+        }
+        for (int i = 0; i <= 20_000; i++) {
+            // every five-decimal coordinate in this dataset's latitude range, half of them ties at %.4f
+            decimals[k] = 4;
+            values[k++] = (1_290_000 + i) / 100_000.0;
+            decimals[k] = 4;
+            values[k++] = -(i / 100_000.0); // negatives from -0.0 outwards
+        }
+        while (k < n) {
+            decimals[k] = rnd.nextInt(9);
+            values[k++] = (rnd.nextDouble() - 0.5) * Math.pow(10, rnd.nextInt(-6, 10));
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        RenderBuffer buf = new RenderBuffer(Channels.newChannel(bytes));
+        for (int i = 0; i < n; i++) {
+            buf.appendFixed(values[i], decimals[i]).newline();
+        }
+        buf.flush();
+        String[] got = bytes.toString(StandardCharsets.UTF_8).split("\n");
+        int mismatches = 0;
+        for (int i = 0; i < n; i++) {
+            String want = String.format(Locale.ROOT, "%." + decimals[i] + "f", values[i]);
+            if (!want.equals(got[i])) {
+                if (mismatches++ < 5) {
+                    System.out.println("  appendFixed(" + values[i] + ", " + decimals[i] + ") = " + got[i]
+                            + ", String.format = " + want);
+                }
+            }
+        }
+        System.out.println("appendFixed vs String.format: " + n + " values, " + mismatches + " differ");
+    }
+
+    private static byte[] formatted(MarkerView markers) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(bytes, false, StandardCharsets.UTF_8);
+        printAll(markers, out);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    // the old per-line path, extended to every marker
+    private static void printAll(MarkerView markers, PrintStream out) {
+        out.print("Rendering " + markers.size() + " markers...\n");
+        for (int i = 0; i < markers.size(); i++) {
+            out.print(String.format(Locale.ROOT, "%s @ (%.4f, %.4f) style=%s\n",
+                    markers.label(i), markers.lat(i), markers.lng(i), markers.style(i)));
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.map;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Locale;
+
+/**
+ * Reusable output buffer for the render pipeline.
+ *
+ * Text is encoded (UTF-8) straight into one ByteBuffer and written to the
+ * channel only when the buffer fills or on flush(), so rendering a million
+ * lines makes a handful of large writes instead of a synchronized println
+ * per line. appendFixed() is a hand-rolled fixed-precision formatter that
+ * prints what {@code %.Nf} would, going through java.util.Formatter only
+ * for rare near-ties.
+ */
+public class RenderBuffer {
+
+    private static final long[] POW10 = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000, 10_000_000, 100_000_000};
+
+    private WritableByteChannel out;
+    private final ByteBuffer buf;
+
+    public RenderBuffer(WritableByteChannel out) {
+        this(out, 64 * 1024);
+    }
+
+    public RenderBuffer(WritableByteChannel out, int capacity) {
+        this.out = out;
+        this.buf = ByteBuffer.allocate(Math.max(16, capacity));
+    }
+
+    /**
+     * Discards anything not yet flushed and points the buffer at another
+     * channel, so one buffer can serve many render passes.
+     */
+    public void reset(WritableByteChannel out) {
+        this.out = out;
+        buf.clear();
+    }
+
+    public RenderBuffer append(CharSequence s) {
+        for (int i = 0, n = s.length(); i < n; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                ensure(1);
+                buf.put((byte) c);
+            } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(s.charAt(i + 1))) {
+                appendCodePoint(Character.toCodePoint(c, s.charAt(++i)));
+            } else {
+                appendCodePoint(c);
+            }
+        }
+        return this;
+    }
+
+    public RenderBuffer append(char c) {
+        if (c < 0x80) {
+            ensure(1);
+            buf.put((byte) c);
+            return this;
+        }
+        return appendCodePoint(c);
+    }
+
+    /** Raw UTF-8 bytes, e.g. a label straight from a packed byte heap. */
+    public RenderBuffer appendUtf8(byte[] bytes, int offset, int length) {
+        while (length > 0) {
+            ensure(1);
+            int n = Math.min(length, buf.remaining());
+            buf.put(bytes, offset, n);
+            offset += n;
+            length -= n;
+        }
+        return this;
+    }
+
+    /** Raw UTF-8 bytes at an absolute position of src, e.g. a mapped file; src's position is unchanged. */
+    public RenderBuffer appendUtf8(ByteBuffer src, int offset, int length) {
+        while (length > 0) {
+            ensure(1);
+            int n = Math.min(length, buf.remaining());
+            buf.put(buf.position(), src, offset, n);
+            buf.position(buf.position() + n);
+            offset += n;
+            length -= n;
+        }
+        return this;
+    }
+
+    public RenderBuffer append(long v) {
+        if (v == Long.MIN_VALUE) {
+            return append("-9223372036854775808");
+        }
+        ensure(20);
+        if (v < 0) {
+            buf.put((byte) '-');
+            v = -v;
+        }
+        long div = 1;
+        while (v / div >= 10) {
+            div *= 10;
+        }
+        for (; div > 0; div /= 10) {
+            buf.put((byte) ('0' + (v / div) % 10));
+        }
+        return this;
+    }
+
+    /**
+     * Appends v with exactly {@code decimals} (0..8) fraction digits, printing
+     * the same text as {@code String.format(Locale.ROOT, "%.Nf", v)}.
+     *
+     * Formatter rounds half-up on the shortest decimal form of v, not on its
+     * binary value, so e.g. 12.34565 becomes 12.3457 although the double is
+     * slightly below the tie. The fast path rounds the binary product, which
+     * agrees except when the product is within a few ulps of .5; those rare
+     * near-ties, and magnitudes of 1e15 or more after scaling, are handed to
+     * String.format itself. The sign is kept for every negative v, including
+     * -0.0 and values that round to zero ("-0.0000"), as Formatter does.
+     */
+    public RenderBuffer appendFixed(double v, int decimals) {
+        if (Double.isNaN(v) || Double.isInfinite(v)) {
+            return append(Double.isNaN(v) ? "NaN" : (v > 0 ? "Infinity" : "-Infinity"));
+        }
+        long scale = POW10[decimals];
+        double abs = Math.abs(v);
+        double product = abs * scale;
+        if (product >= 1e15) {
+            return append(String.format(Locale.ROOT, "%." + decimals + "f", v));
+        }
+        // the shortest decimal form lies within ulp(abs)/2 of abs, and the product
+        // carries its own rounding error: inside that band the side of .5 is unknown
+        double fraction = product - Math.floor(product);
+        if (Math.abs(fraction - 0.5) <= Math.ulp(abs) * scale + Math.ulp(product)) {
+            return append(String.format(Locale.ROOT, "%." + decimals + "f", v));
+        }
+        long scaled = (long) Math.floor(product + 0.5);
+        if (Double.doubleToRawLongBits(v) < 0) {
+            append('-');
+        }
+        append(scaled / scale);
+        if (decimals > 0) {
+            ensure(decimals + 1);
+            buf.put((byte) '.');
+            long frac = scaled % scale;
+            for (long d = scale / 10; d > 0; d /= 10) {
+                buf.put((byte) ('0' + (frac / d) % 10));
+            }
+        }
+        return this;
+    }
+
+    public RenderBuffer newline() {
+        return append('\n');
+    }
+
+    /** Writes everything buffered so far to the channel. */
+    public void flush() {
+        buf.flip();
+        try {
+            while (buf.hasRemaining()) {
+                out.write(buf);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buf.clear();
+    }
+
+    private RenderBuffer appendCodePoint(int cp) {
+        ensure(4);
+        if (cp < 0x800) {
+            buf.put((byte) (0xC0 | (cp >> 6)));
+        } else if (cp < 0x10000) {
+            buf.put((byte) (0xE0 | (cp >> 12)));
+            buf.put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+        } else {
+            buf.put((byte) (0xF0 | (cp >> 18)));
+            buf.put((byte) (0x80 | ((cp >> 12) & 0x3F)));
+            buf.put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+        }
+        buf.put((byte) (0x80 | (cp & 0x3F)));
+        return this;
+    }
+
+    private void ensure(int n) {
+        if (buf.remaining() < n) {
+            flush();
+        }
+    }
+}
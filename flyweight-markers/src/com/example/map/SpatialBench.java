@@ -0,0 +1,70 @@
+package com.example.map;
+
+import java.util.SplittableRandom;
+
+/**
+ * Builds a SpatialGrid over 1M markers, times random viewport queries, and
+ * checks a sample of them against a brute-force scan, then checks that a
+ * NaN coordinate fails the build.
+ *
+ * Usage: java -Xmx1g com.example.map.SpatialBench [markers]
+ */
+public class SpatialBench {
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int queries = 10_000;
+        double span = 0.01; // about 1 km in each direction
+
+        MarkerStore store = new MapDataSource().loadStoreParallel(n, 42, 16);
+        SpatialGrid.build(store); // warm-up
+
+        long t0 = System.nanoTime();
+        SpatialGrid grid = SpatialGrid.build(store);
+        long buildMs = (System.nanoTime() - t0) / 1_000_000;
+
+        SplittableRandom rnd = new SplittableRandom(1);
+        long[] hits = new long[1];
+        MarkerVisitor count = row -> hits[0]++;
+        t0 = System.nanoTime();
+        for (int q = 0; q < queries; q++) {
+            double lat = 12.9 + rnd.nextDouble() * (0.2 - span);
+            double lng = 77.5 + rnd.nextDouble() * (0.2 - span);
+            grid.query(lat, lng, lat + span, lng + span, count);
+        }
+        double queryMicros = (System.nanoTime() - t0) / 1e3 / queries;
+
+        int mismatches = 0;
+        for (int q = 0; q < 20; q++) {
+            double lat = 12.9 + rnd.nextDouble() * (0.2 - span);
+            double lng = 77.5 + rnd.nextDouble() * (0.2 - span);
+            int indexed = grid.query(lat, lng, lat + span, lng + span, row -> { });
+            int brute = 0;
+            for (int i = 0; i < store.size(); i++) {
+                if (store.lat(i) >= lat && store.lat(i) <= lat + span
+                        && store.lng(i) >= lng && store.lng(i) <= lng + span) {
+                    brute++;
+                }
+            }
+            if (indexed != brute) {
+                mismatches++;
+            }
+        }
+
+        System.out.printf("Markers: %,d, cells: %,d%n", n, grid.cellCount());
+        System.out.println("Build: " + buildMs + " ms");
+        System.out.printf("Viewport %.2f x %.2f deg: %.1f us/query, %.0f markers/query%n",
+                span, span, queryMicros, (double) hits[0] / queries);
+        System.out.println("Queries disagreeing with brute force: " + mismatches + " of 20");
+
+        new MapRenderer().render(store, grid, 12.95, 77.55, 12.96, 77.56);
+
+        store.add(12.95, Double.NaN, store.styleId(0));
+        try {
+            SpatialGrid.build(store);
+            System.out.println("\nNaN coordinate was NOT rejected");
+        } catch (IllegalArgumentException expected) {
+            System.out.println("\nNaN coordinate rejected: " + expected.getMessage());
+        }
+    }
+}
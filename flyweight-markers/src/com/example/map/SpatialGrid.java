@@ -0,0 +1,141 @@
+package com.example.map;
+
+/**
+ * Uniform grid index over the lat/lng columns of a {@link MarkerView}, for
+ * viewport queries.
+ *
+ * build() buckets rows by cell with a counting sort: two linear passes and
+ * no per-marker objects. The rows of each cell end up contiguous, next to
+ * copies of their coordinates. query() visits only the cells that overlap
+ * the viewport. Rows in fully covered cells are reported without a
+ * coordinate test. Nothing is allocated per query.
+ *
+ * The grid is a snapshot: rebuild it after the underlying markers change.
+ * build() rejects NaN and infinite coordinates, which would poison the
+ * bounds and every cell computation.
+ */
+public class SpatialGrid {
+
+    private static final int TARGET_PER_CELL = 16;
+
+    private final double minLat;
+    private final double minLng;
+    private final double cellLat;
+    private final double cellLng;
+    private final int cols;
+    private final int rowsOfCells;
+
+    private final int[] cellStart; // cell c holds entries cellStart[c] .. cellStart[c+1]-1
+    private final int[] rows;
+    private final double[] lats;
+    private final double[] lngs;
+
+    private SpatialGrid(double minLat, double minLng, double cellLat, double cellLng, int cols, int rowsOfCells,
+                        int[] cellStart, int[] rows, double[] lats, double[] lngs) {
+        this.minLat = minLat;
+        this.minLng = minLng;
+        this.cellLat = cellLat;
+        this.cellLng = cellLng;
+        this.cols = cols;
+        this.rowsOfCells = rowsOfCells;
+        this.cellStart = cellStart;
+        this.rows = rows;
+        this.lats = lats;
+        this.lngs = lngs;
+    }
+
+    public static SpatialGrid build(MarkerView view) {
+        int n = view.size();
+        double minLat = Double.POSITIVE_INFINITY, maxLat = Double.NEGATIVE_INFINITY;
+        double minLng = Double.POSITIVE_INFINITY, maxLng = Double.NEGATIVE_INFINITY;
+        double[] lat = new double[n];
+        double[] lng = new double[n];
+        for (int i = 0; i < n; i++) {
+            lat[i] = view.lat(i);
+            lng[i] = view.lng(i);
+            if (!Double.isFinite(lat[i]) || !Double.isFinite(lng[i])) {
+                throw new IllegalArgumentException("Non-finite coordinate at row " + i + ": " + lat[i] + ", " + lng[i]);
+            }
+            minLat = Math.min(minLat, lat[i]);
+            maxLat = Math.max(maxLat, lat[i]);
+            minLng = Math.min(minLng, lng[i]);
+            maxLng = Math.max(maxLng, lng[i]);
+        }
+        if (n == 0) {
+            minLat = maxLat = minLng = maxLng = 0;
+        }
+
+        int side = Math.max(1, (int) Math.ceil(Math.sqrt((double) n / TARGET_PER_CELL)));
+        // nudge the extent so the max coordinate still falls inside the last cell
+        double cellLat = Math.max((maxLat - minLat) / side, 1e-12) * (1 + 1e-9);
+        double cellLng = Math.max((maxLng - minLng) / side, 1e-12) * (1 + 1e-9);
+        int cells = side * side;
+
+        int[] cellOf = new int[n];
+        int[] cellStart = new int[cells + 1];
+        for (int i = 0; i < n; i++) {
+            int r = clamp((int) ((lat[i] - minLat) / cellLat), side);
+            int c = clamp((int) ((lng[i] - minLng) / cellLng), side);
+            cellOf[i] = r * side + c;
+            cellStart[cellOf[i] + 1]++;
+        }
+        for (int c = 0; c < cells; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+
+        int[] next = new int[cells];
+        System.arraycopy(cellStart, 0, next, 0, cells);
+        int[] rows = new int[n];
+        double[] sortedLat = new double[n];
+        double[] sortedLng = new double[n];
+        for (int i = 0; i < n; i++) {
+            int slot = next[cellOf[i]]++;
+            rows[slot] = i;
+            sortedLat[slot] = lat[i];
+            sortedLng[slot] = lng[i];
+        }
+        return new SpatialGrid(minLat, minLng, cellLat, cellLng, side, side,
+                cellStart, rows, sortedLat, sortedLng);
+    }
+
+    /**
+     * Calls the visitor with every row inside the (inclusive) box and returns
+     * how many there were.
+     */
+    public int query(double minLat, double minLng, double maxLat, double maxLng, MarkerVisitor visitor) {
+        if (maxLat < minLat || maxLng < minLng || rows.length == 0) {
+            return 0;
+        }
+        int r0 = clamp((int) Math.floor((minLat - this.minLat) / cellLat), rowsOfCells);
+        int r1 = clamp((int) Math.floor((maxLat - this.minLat) / cellLat), rowsOfCells);
+        int c0 = clamp((int) Math.floor((minLng - this.minLng) / cellLng), cols);
+        int c1 = clamp((int) Math.floor((maxLng - this.minLng) / cellLng), cols);
+
+        int found = 0;
+        for (int r = r0; r <= r1; r++) {
+            double cellMinLat = this.minLat + r * cellLat;
+            boolean latInside = cellMinLat >= minLat && cellMinLat + cellLat <= maxLat;
+            for (int c = c0; c <= c1; c++) {
+                double cellMinLng = this.minLng + c * cellLng;
+                boolean inside = latInside && cellMinLng >= minLng && cellMinLng + cellLng <= maxLng;
+                int cell = r * cols + c;
+                for (int k = cellStart[cell], end = cellStart[cell + 1]; k < end; k++) {
+                    if (inside || (lats[k] >= minLat && lats[k] <= maxLat
+                            && lngs[k] >= minLng && lngs[k] <= maxLng)) {
+                        visitor.visit(rows[k]);
+                        found++;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    public int cellCount() {
+        return cols * rowsOfCells;
+    }
+
+    private static int clamp(int v, int side) {
+        return v < 0 ? 0 : (v >= side ? side - 1 : v);
+    }
+}
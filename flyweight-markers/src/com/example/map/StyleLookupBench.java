@@ -0,0 +1,81 @@
+package com.example.map;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compares style lookups: the original String-key factory (concatenate a key,
+ * containsKey then get) against the packed-index factory, called with enums
+ * and with Strings. Reports time and bytes allocated per lookup.
+ */
+public class StyleLookupBench {
+
+    private static final int LOOKUPS = 5_000_000;
+
+    public static void main(String[] args) {
+        String[] shapeNames = {"PIN", "CIRCLE", "SQUARE"};
+        String[] colorNames = {"RED", "BLUE", "GREEN", "ORANGE"};
+        MarkerShape[] shapes = MarkerShape.values();
+        MarkerColor[] colors = MarkerColor.values();
+        int[] sizes = {10, 12, 14, 16};
+
+        StringKeyFactory old = new StringKeyFactory();
+        MarkerStyleFactory packed = new MarkerStyleFactory();
+
+        for (int round = 0; round < 2; round++) { // round 0 is warm-up
+            long t0 = System.nanoTime();
+            long a0 = allocatedBytes();
+            long sink = 0;
+            for (int i = 0; i < LOOKUPS; i++) {
+                sink += old.get(shapeNames[i % 3], colorNames[i % 4], sizes[i % 4], (i & 1) == 0).getSize();
+            }
+            report(round, "String key (original)", t0, a0, sink);
+
+            t0 = System.nanoTime();
+            a0 = allocatedBytes();
+            sink = 0;
+            for (int i = 0; i < LOOKUPS; i++) {
+                sink += packed.get(shapes[i % 3], colors[i % 4], sizes[i % 4], (i & 1) == 0).getSize();
+            }
+            report(round, "packed index (enums)", t0, a0, sink);
+
+            t0 = System.nanoTime();
+            a0 = allocatedBytes();
+            sink = 0;
+            for (int i = 0; i < LOOKUPS; i++) {
+                sink += packed.get(shapeNames[i % 3], colorNames[i % 4], sizes[i % 4], (i & 1) == 0).getSize();
+            }
+            report(round, "packed index (Strings)", t0, a0, sink);
+        }
+    }
+
+    private static void report(int round, String name, long t0, long a0, long sink) {
+        long nanos = System.nanoTime() - t0;
+        long bytes = allocatedBytes() - a0;
+        if (round > 0) {
+            System.out.printf("%-24s %6.1f ns/lookup %6.1f bytes/lookup (checksum %d)%n",
+                    name, (double) nanos / LOOKUPS, (double) bytes / LOOKUPS, sink);
+        }
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    // The factory as it was before the packed-index lookup.
+    private static final class StringKeyFactory {
+        private final Map<String, MarkerStyle> cache = new HashMap<>();
+
+        MarkerStyle get(String shape, String color, int size, boolean filled) {
+            String key = shape + "|" + color + "|" + size + "|" + (filled ? "F" : "O");
+            if (cache.containsKey(key)) {
+                return cache.get(key);
+            }
+            MarkerStyle style = new MarkerStyle(shape, color, size, filled);
+            cache.put(key, style);
+            return style;
+        }
+    }
+}
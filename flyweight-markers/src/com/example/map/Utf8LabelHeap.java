@@ -0,0 +1,69 @@
+package com.example.map;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Arbitrary labels packed back to back as UTF-8 in one byte[]: row i is
+ * bytes offsets[i] .. offsets[i+1]-1. Costs the encoded bytes plus 4 per
+ * row, with no String or array header per label; appendTo() copies the
+ * bytes into the render buffer without decoding. Labels are added in row order.
+ */
+public class Utf8LabelHeap implements LabelStrategy {
+
+    private static final int MAX_HEAP = Integer.MAX_VALUE - 8; // largest array size VMs reliably allow
+
+    private byte[] heap;
+    private int[] offsets;
+    private int size;
+
+    public Utf8LabelHeap(int initialCapacity) {
+        int cap = Math.max(1, initialCapacity);
+        this.heap = new byte[cap * 8];
+        this.offsets = new int[cap + 1];
+    }
+
+    /** Appends the label for the next row and returns that row. */
+    public int add(String label) {
+        byte[] bytes = label.getBytes(StandardCharsets.UTF_8);
+        int end = offsets[size];
+        if (bytes.length > heap.length - end) {
+            long needed = (long) end + bytes.length;
+            if (needed > MAX_HEAP) {
+                throw new IllegalStateException("Label heap exceeds 2 GB");
+            }
+            // doubling may overshoot the limit while the labels still fit, so clamp it
+            heap = Arrays.copyOf(heap, (int) Math.min(Math.max((long) heap.length * 2, needed), MAX_HEAP));
+        }
+        if (size + 1 == offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+        }
+        System.arraycopy(bytes, 0, heap, end, bytes.length);
+        offsets[size + 1] = end + bytes.length;
+        return size++;
+    }
+
+    public int size() { return size; }
+
+    /** Bytes used by label text. */
+    public int heapBytes() { return offsets[size]; }
+
+    @Override
+    public String label(int row) {
+        int start = offsets[check(row)];
+        return new String(heap, start, offsets[row + 1] - start, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void appendTo(int row, RenderBuffer out) {
+        int start = offsets[check(row)];
+        out.appendUtf8(heap, start, offsets[row + 1] - start);
+    }
+
+    private int check(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("row " + row + " of " + size);
+        }
+        return row;
+    }
+}
@@ -40,5 +40,13 @@ public class App {
         System.out.println();
 
         viewer.open(adminReport, admin);
+        System.out.println();
+
+        // a second proxy for R-303 (another request) is served from the shared cache, no disk load
+        ReportProxy adminReportAgain = new ReportProxy("R-303", "Budget Audit", "ADMIN");
+        viewer.open(adminReportAgain, admin);
+        System.out.println();
+
+        System.out.println("[cache] " + ReportCache.shared().stats());
     }
 }
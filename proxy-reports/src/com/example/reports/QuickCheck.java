@@ -1,8 +1,18 @@
 package com.example.reports;
 
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Proxy behaviour (access control, lazy load), then the shared ReportCache:
+ * two proxies for one id, concurrent first views, LRU eviction and TTL
+ * (with a fake clock, so nothing sleeps for the TTL).
+ */
 public class QuickCheck {
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws InterruptedException {
         User student = new User("Riya", "STUDENT");
         User admin = new User("Kshitij", "ADMIN");
 
@@ -15,5 +25,107 @@ public class QuickCheck {
         adminReport.display(admin);
         System.out.println();
         adminReport.display(admin);
+
+        System.out.println("\n=== ReportCache ===");
+        checkSharedAcrossProxies(admin);
+        checkConcurrentFirstView(admin);
+        checkEvictionAndTtl();
+        checkNoEvictionWhileLoading();
+    }
+
+    private static void checkSharedAcrossProxies(User admin) {
+        ReportCache cache = new ReportCache(100, Duration.ofMinutes(10), System::nanoTime);
+        new ReportProxy("R-404", "Placement Stats", "PUBLIC", cache).display(admin);
+        new ReportProxy("R-404", "Placement Stats", "PUBLIC", cache).display(admin);
+        System.out.println("two proxies, same id -> misses=" + cache.missCount()
+                + " hits=" + cache.hitCount() + " (expected 1 and 1)");
+        new ReportProxy("R-404", "Placement Stats", "FACULTY", cache).display(admin);
+        System.out.println("same id, other classification -> misses=" + cache.missCount()
+                + " (expected 2, cached separately)\n");
+    }
+
+    private static void checkConcurrentFirstView(User admin) throws InterruptedException {
+        ReportCache cache = new ReportCache(100, Duration.ofMinutes(10), System::nanoTime);
+        AtomicInteger loads = new AtomicInteger();
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                try {
+                    start.await();
+                    cache.get("R-505", "Hostel Survey", "PUBLIC", () -> {
+                        loads.incrementAndGet();
+                        return new RealReport("R-505", "Hostel Survey", "PUBLIC");
+                    });
+                } catch (InterruptedException ignored) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        start.countDown();
+        done.await();
+        System.out.println(threads + " concurrent first views -> loads=" + loads.get() + " (expected 1)\n");
+    }
+
+    private static void checkEvictionAndTtl() {
+        AtomicLong now = new AtomicLong();
+        ReportCache cache = new ReportCache(2, Duration.ofSeconds(60), now::get);
+        AtomicInteger loads = new AtomicInteger();
+
+        load(cache, "A", loads);
+        load(cache, "B", loads);
+        load(cache, "A", loads); // hit; B is now least recently used
+        load(cache, "C", loads); // evicts B
+        load(cache, "A", loads); // still cached
+        load(cache, "B", loads); // reloaded, evicts C
+        System.out.println("LRU (max 2) -> loads=" + loads.get() + " evictions=" + cache.evictionCount()
+                + " (expected 4 and 2)");
+
+        now.addAndGet(Duration.ofSeconds(61).toNanos());
+        load(cache, "A", loads); // expired -> reloaded
+        load(cache, "A", loads);
+        System.out.println("after TTL -> loads=" + loads.get() + " expired=" + cache.expiredCount()
+                + " (expected 5 and 1)");
+        System.out.println("[cache] " + cache.stats());
+    }
+
+    // max 1 entry: X is still loading when Y finishes, so Y is evicted instead
+    // and a second view of X waits for the first load
+    private static void checkNoEvictionWhileLoading() throws InterruptedException {
+        ReportCache cache = new ReportCache(1, Duration.ofMinutes(10), System::nanoTime);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Runnable viewX = () -> cache.get("X", "Report X", "PUBLIC", () -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new RealReport("X", "Report X", "PUBLIC");
+        });
+        Thread first = new Thread(viewX);
+        first.start();
+        loading.await();
+        load(cache, "Y", loads);
+        Thread second = new Thread(viewX);
+        second.start();
+        release.countDown();
+        first.join();
+        second.join();
+        System.out.println("\nload in flight past maxSize -> loads=" + loads.get() + " size=" + cache.size()
+                + " (expected 2 and 1)");
+    }
+
+    private static void load(ReportCache cache, String id, AtomicInteger loads) {
+        cache.get(id, "Report " + id, "PUBLIC", () -> {
+            loads.incrementAndGet();
+            return new RealReport(id, "Report " + id, "PUBLIC");
+        });
     }
 }
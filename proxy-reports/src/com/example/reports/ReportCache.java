@@ -0,0 +1,189 @@
+package com.example.reports;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Process-wide cache of loaded reports, keyed by report id, title and
+ * classification, so every ReportProxy for the same report shares one
+ * RealReport, and proxies that disagree on a report's metadata each get
+ * their own.
+ *
+ * - bounded: least recently used loaded entries are evicted past maxSize;
+ *   entries still loading are never evicted, so the cache can exceed
+ *   maxSize by the number of loads in flight
+ * - TTL: an entry older than ttl is reloaded on its next lookup
+ * - concurrent lookups of a report that is still loading wait for that
+ *   load instead of starting their own
+ * - hit / miss / eviction / expiry counters
+ *
+ * The clock is injectable (nanoseconds) so TTL can be checked without sleeping.
+ */
+public class ReportCache {
+
+    private static final ReportCache SHARED = new ReportCache(1_000, Duration.ofMinutes(10), System::nanoTime);
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final LinkedHashMap<Key, Entry> entries;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+
+    public ReportCache(int maxSize, Duration ttl, LongSupplier nanoClock) {
+        if (maxSize < 1 || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("maxSize must be >= 1 and ttl positive");
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.clock = nanoClock;
+        // access order: get() moves an entry to the tail, the head is least recently used
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /** The cache used by ReportProxy unless one is passed in. */
+    public static ReportCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the cached report for (reportId, title, classification), or runs
+     * loader (once, even if several threads ask at the same time) and caches
+     * its result. If the load fails, nothing is cached and every waiting
+     * caller gets the exception.
+     */
+    public RealReport get(String reportId, String title, String classification, Supplier<RealReport> loader) {
+        Key key = new Key(reportId, title, classification);
+        Entry entry;
+        boolean load = false;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry != null && entry.isExpired(clock.getAsLong(), ttlNanos)) {
+                entries.remove(key);
+                expirations++;
+                entry = null;
+            }
+            if (entry != null) {
+                hits++;
+            } else {
+                misses++;
+                entry = new Entry();
+                entries.put(key, entry);
+                load = true;
+            }
+        }
+
+        if (load) {
+            try {
+                RealReport report = loader.get();
+                synchronized (this) {
+                    entry.loadedAt = clock.getAsLong(); // TTL runs from the end of the load
+                    entry.loaded = true;
+                    evictOverflow();
+                }
+                entry.value.complete(report);
+            } catch (RuntimeException | Error e) {
+                synchronized (this) {
+                    entries.remove(key, entry);
+                }
+                entry.value.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        try {
+            return entry.value.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /** Drops every cached copy of one report, e.g. after it changed on disk. */
+    public synchronized void invalidate(String reportId) {
+        entries.keySet().removeIf(k -> k.reportId.equals(reportId));
+    }
+
+    // removes least recently used loaded entries until the cache fits in maxSize;
+    // an entry still loading has waiters and is skipped
+    private void evictOverflow() {
+        Iterator<Entry> it = entries.values().iterator();
+        while (entries.size() > maxSize && it.hasNext()) {
+            if (it.next().loaded) {
+                it.remove();
+                evictions++;
+            }
+        }
+    }
+
+    public synchronized int size() { return entries.size(); }
+
+    public synchronized long hitCount() { return hits; }
+
+    public synchronized long missCount() { return misses; }
+
+    /** Entries dropped to stay within maxSize (expired entries are counted separately). */
+    public synchronized long evictionCount() { return evictions; }
+
+    public synchronized long expiredCount() { return expirations; }
+
+    public synchronized String stats() {
+        long lookups = hits + misses;
+        return "size=" + entries.size() + "/" + maxSize
+                + " hits=" + hits + " misses=" + misses
+                + " hitRate=" + (lookups == 0 ? "n/a" : (100 * hits / lookups) + "%")
+                + " evictions=" + evictions + " expired=" + expirations;
+    }
+
+    private static final class Key {
+        final String reportId;
+        final String title;
+        final String classification;
+
+        Key(String reportId, String title, String classification) {
+            this.reportId = reportId;
+            this.title = title;
+            this.classification = classification;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key k = (Key) o;
+            return reportId.equals(k.reportId) && Objects.equals(title, k.title)
+                    && Objects.equals(classification, k.classification);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(reportId, title, classification);
+        }
+    }
+
+    // value is completed by the thread that loads it; others wait on it
+    private static final class Entry {
+        final CompletableFuture<RealReport> value = new CompletableFuture<>();
+        boolean loaded;  // guarded by the cache lock, like loadedAt
+        long loadedAt;
+
+        boolean isExpired(long now, long ttlNanos) {
+            return loaded && now - loadedAt >= ttlNanos;
+        }
+    }
+}
@@ -5,7 +5,12 @@ package com.example.reports;
  * Implement Proxy responsibilities here:
  * - access check
  * - lazy loading
- * - caching of RealReport within the same proxy
+ * - caching of RealReport, shared by every proxy for the same reportId
+ *
+ * Loaded reports live in a ReportCache shared by all proxies, so two proxies
+ * for the same report load it from disk once. The cache key includes the
+ * title and classification, so a proxy never sees a report loaded with
+ * metadata other than its own.
  */
 public class ReportProxy implements Report {
     //act as a proxy on RealReport for lazy loading and access control and caching
@@ -13,12 +18,17 @@ public class ReportProxy implements Report {
     private final String title;
     private final String classification;
     private final AccessControl accessControl = new AccessControl();
-    private RealReport realReport;// cashed instance
+    private final ReportCache cache; // shared across proxies instead of a per-proxy RealReport field
 
     public ReportProxy(String reportId, String title, String classification) {
+        this(reportId, title, classification, ReportCache.shared());
+    }
+
+    public ReportProxy(String reportId, String title, String classification, ReportCache cache) {
         this.reportId = reportId;
         this.title = title;
         this.classification = classification;
+        this.cache = cache;
     }
 
     @Override
@@ -28,11 +38,9 @@ public class ReportProxy implements Report {
             System.out.println("Access denied for user: " + user.getName() + " to report: " + reportId);
             return;
         }
-        //lazy loading
-        if(realReport == null){
-            realReport = new RealReport(reportId, title, classification);
-        }
-        //caching
+        //lazy loading + caching: only loads on a cache miss (first view, evicted or expired)
+        RealReport realReport = cache.get(reportId, title, classification,
+                () -> new RealReport(reportId, title, classification));
         realReport.display(user);
     }
 }
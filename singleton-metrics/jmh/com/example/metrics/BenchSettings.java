@@ -0,0 +1,18 @@
+package com.example.metrics;
+
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Common run settings inherited by every benchmark class: fixed iteration
+ * counts, several forks, and a fixed pre-touched heap with one GC, so results
+ * are comparable from run to run and can gate regressions.
+ */
+@Fork(value = 3, jvmArgsAppend = {"-Xms1g", "-Xmx1g", "-XX:+AlwaysPreTouch", "-XX:+UseParallelGC"})
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+abstract class BenchSettings {
+}
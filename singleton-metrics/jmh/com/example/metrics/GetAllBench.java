@@ -0,0 +1,49 @@
+package com.example.metrics;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scrape cost with 10 / 1k / 100k registered counters: getAll() against the
+ * reusable-buffer snapshotCounters(). Each key count runs in its own forks,
+ * so the singleton only ever holds that many keys.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class GetAllBench extends BenchSettings {
+
+    @Param({"10", "1000", "100000"})
+    public int keys;
+
+    private MetricsRegistry registry;
+    private final CounterBuffer buffer = new CounterBuffer();
+
+    @Setup(Level.Trial)
+    public void register() {
+        registry = MetricsRegistry.getInstance();
+        for (int i = 0; i < keys; i++) {
+            registry.counter("BENCH_KEY_" + i).add(i);
+        }
+    }
+
+    @Benchmark
+    public Map<String, Long> getAll() {
+        return registry.getAll();
+    }
+
+    @Benchmark
+    public int snapshotCounters() {
+        return registry.snapshotCounters(buffer);
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.metrics;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of reaching the singleton: the registry's double-checked locking
+ * against the static holder idiom and an enum singleton.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class GetInstanceBench extends BenchSettings {
+
+    @Benchmark
+    public Object doubleCheckedLocking() {
+        return MetricsRegistry.getInstance();
+    }
+
+    @Benchmark
+    public Object holderIdiom() {
+        return HolderSingleton.getInstance();
+    }
+
+    @Benchmark
+    public Object enumSingleton() {
+        return EnumSingleton.INSTANCE;
+    }
+
+    static final class HolderSingleton {
+        private HolderSingleton() {
+        }
+
+        private static final class Holder {
+            static final HolderSingleton INSTANCE = new HolderSingleton();
+        }
+
+        static HolderSingleton getInstance() {
+            return Holder.INSTANCE;
+        }
+    }
+
+    enum EnumSingleton {
+        INSTANCE
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.metrics;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of increment() on one shared key, by string lookup and through a
+ * cached Counter handle, at 1/4/16/64 threads. Scores are total ops across
+ * all threads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class IncrementBench extends BenchSettings {
+
+    private static final String KEY = "REQUESTS_TOTAL";
+    private static final MetricsRegistry REGISTRY = MetricsRegistry.getInstance();
+    private static final Counter HANDLE = REGISTRY.counter(KEY);
+
+    @Benchmark @Threads(1)
+    public void byKey_01() { REGISTRY.increment(KEY); }
+
+    @Benchmark @Threads(4)
+    public void byKey_04() { REGISTRY.increment(KEY); }
+
+    @Benchmark @Threads(16)
+    public void byKey_16() { REGISTRY.increment(KEY); }
+
+    @Benchmark @Threads(64)
+    public void byKey_64() { REGISTRY.increment(KEY); }
+
+    @Benchmark @Threads(1)
+    public void handle_01() { HANDLE.inc(); }
+
+    @Benchmark @Threads(4)
+    public void handle_04() { HANDLE.inc(); }
+
+    @Benchmark @Threads(16)
+    public void handle_16() { HANDLE.inc(); }
+
+    @Benchmark @Threads(64)
+    public void handle_64() { HANDLE.inc(); }
+}
@@ -0,0 +1,60 @@
+package com.example.metrics;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MetricsLoader startup cost for a seeded metrics.properties: the streaming
+ * loadFromFile() against the original Properties-based loader.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class LoaderBench extends BenchSettings {
+
+    @Param({"1000", "200000"})
+    public int keys;
+
+    private Path file;
+    private final MetricsLoader loader = new MetricsLoader();
+
+    @Setup(Level.Trial)
+    public void writeFile() throws IOException {
+        file = Files.createTempFile("loader-bench", ".properties");
+        try (BufferedWriter w = Files.newBufferedWriter(file, StandardCharsets.ISO_8859_1)) {
+            for (int i = 0; i < keys; i++) {
+                w.write("BENCH_KEY_" + i + "=" + i + "\n");
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public MetricsRegistry streaming() throws IOException {
+        return loader.loadFromFile(file.toString());
+    }
+
+    @Benchmark
+    public MetricsRegistry properties() throws IOException {
+        return loader.loadWithProperties(file.toString());
+    }
+}
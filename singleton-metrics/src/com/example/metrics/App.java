@@ -1,5 +1,6 @@
 package com.example.metrics;
 
+import java.time.Duration;
 import java.util.Map;
 
 /**
@@ -23,13 +24,40 @@ public class App {
         System.out.println("Global registry instance  : " + System.identityHashCode(global));
 
         global.increment("REQUESTS_TOTAL");
+
+        // Hot paths resolve the handle once and reuse it per request.
+        Counter requests = global.counter("REQUESTS_TOTAL");
+        Meter requestRate = global.meter("REQUESTS");
+        WindowedCounter recentRequests = global.windowedCounter("REQUESTS_LAST_60S", Duration.ofSeconds(60));
+        requests.inc();
+        requestRate.mark();
+        recentRequests.inc();
         System.out.println("\nREQUESTS_TOTAL = " + global.getCount("REQUESTS_TOTAL"));
+        System.out.printf("REQUESTS meter: count=%d mean=%.2f/s m1=%.2f/s m5=%.2f/s m15=%.2f/s%n",
+                requestRate.getCount(), requestRate.getMeanRate(), requestRate.getOneMinuteRate(),
+                requestRate.getFiveMinuteRate(), requestRate.getFifteenMinuteRate());
+
+        // Labeled family: resolve the child once, then it is a plain counter.
+        CounterFamily http = global.counterFamily("HTTP_REQUESTS", "route", "code");
+        Counter ok = http.labels("/x", "200");
+        ok.inc();
+        ok.inc();
+        http.labels("/x", "500").inc();
 
         System.out.println("\nAll counters:");
         for (Map.Entry<String, Long> e : global.getAll().entrySet()) {
             System.out.println("  " + e.getKey() + " = " + e.getValue());
         }
 
+        Histogram latency = global.histogram("REQUEST_LATENCY_NANOS");
+        for (int i = 1; i <= 1000; i++) {
+            latency.record(i * 1_000L); // 1us .. 1ms
+        }
+        System.out.println("\nHistograms:");
+        for (HistogramSnapshot h : global.getHistograms().values()) {
+            System.out.println("  " + h);
+        }
+
         System.out.println("\nTIP: Run ConcurrencyCheck / ReflectionAttack / SerializationCheck for validations.");
     }
 }
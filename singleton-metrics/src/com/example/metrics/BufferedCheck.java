@@ -0,0 +1,77 @@
+package com.example.metrics;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Compares direct Counter.inc() against BufferedRecorder under the same
+ * 80-thread load ConcurrencyCheck uses, and verifies no increment is lost.
+ */
+public class BufferedCheck {
+
+    private static final int THREADS = 80;
+    private static final int OPS_PER_THREAD = 500_000;
+
+    public static void main(String[] args) throws Exception {
+        MetricsRegistry registry = MetricsRegistry.getInstance();
+        Counter direct = registry.counter("DIRECT_HITS");
+        BufferedRecorder buffered = registry.bufferedRecorder(4_096, 100, "BUFFERED_HITS");
+
+        // warm-up
+        run(() -> direct.inc());
+        run(() -> buffered.inc(0));
+        direct.set(0);
+        registry.flushBuffered();
+        registry.setCount("BUFFERED_HITS", 0);
+
+        double directOps = run(() -> direct.inc());
+        double bufferedOps = run(() -> buffered.inc(0));
+        long staleRead = registry.getCount("BUFFERED_HITS");
+        long fresh = registry.getAll(true).get("BUFFERED_HITS");
+
+        long expected = (long) THREADS * OPS_PER_THREAD;
+        System.out.println("Threads: " + THREADS + ", increments per thread: " + OPS_PER_THREAD);
+        System.out.printf("direct   Counter.inc()    : %,.0f ops/sec, count=%d%n", directOps, direct.get());
+        System.out.printf("buffered recorder.inc(0)  : %,.0f ops/sec, count=%d after getAll(true)"
+                + " (%d before flush)%n", bufferedOps, fresh, staleRead);
+        System.out.println("expected count: " + expected);
+        int open = registry.bufferedRecorderCount();
+        buffered.close();
+        System.out.println("registered recorders: " + open + " before close, "
+                + registry.bufferedRecorderCount() + " after");
+
+        // fewer than flushThreshold records after close still reach the counter
+        long before = registry.getCount("BUFFERED_HITS");
+        Thread late = new Thread(() -> {
+            for (int i = 0; i < 5; i++) {
+                buffered.inc(0);
+            }
+        });
+        late.start();
+        late.join();
+        System.out.println("records after close: " + (registry.getCount("BUFFERED_HITS") - before)
+                + " of 5 counted");
+    }
+
+    private static double run(Runnable op) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(THREADS);
+        for (int i = 0; i < THREADS; i++) {
+            new Thread(() -> {
+                try {
+                    start.await();
+                    for (int n = 0; n < OPS_PER_THREAD; n++) {
+                        op.run();
+                    }
+                } catch (InterruptedException ignored) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        long t0 = System.nanoTime();
+        start.countDown();
+        done.await();
+        return (double) THREADS * OPS_PER_THREAD / ((System.nanoTime() - t0) / 1e9);
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.metrics;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * Thread-local buffered recording for the hottest paths.
+ *
+ * Each thread accumulates into its own primitive array, so recording never
+ * contends with other threads. The accumulated deltas reach the registry's
+ * counters when a thread has recorded flushThreshold events, when the shared
+ * flush thread runs (every flushIntervalMillis), or when
+ * {@link MetricsRegistry#getAll(boolean)} asks for a flush. Between flushes,
+ * registry reads can be stale by up to that much.
+ *
+ * Per-thread cells hold running totals written only by their owner (a plain
+ * read plus a release store, no CAS). A flush adds the difference since the
+ * last flush, so another thread can flush a buffer while its owner keeps
+ * recording, and no update is lost or counted twice. Once the recorder is
+ * closed, every record flushes its own buffer straight away.
+ */
+public final class BufferedRecorder implements AutoCloseable {
+
+    private static final ScheduledExecutorService FLUSHER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "metrics-buffer-flush");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final Counter[] counters;
+    private final int flushThreshold;
+    private final List<Buffer> buffers = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<Buffer> local = ThreadLocal.withInitial(this::newBuffer);
+    private final ScheduledFuture<?> timer;
+    private final Consumer<BufferedRecorder> onClose;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    BufferedRecorder(Counter[] counters, int flushThreshold, long flushIntervalMillis,
+                     Consumer<BufferedRecorder> onClose) {
+        if (flushThreshold <= 0 || flushIntervalMillis <= 0) {
+            throw new IllegalArgumentException("flushThreshold and flushIntervalMillis must be positive");
+        }
+        this.counters = counters.clone();
+        this.flushThreshold = flushThreshold;
+        this.onClose = onClose;
+        this.timer = FLUSHER.scheduleAtFixedRate(this::flush,
+                flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /** Number of counters; valid slots are 0..size()-1 in registration order. */
+    public int size() {
+        return counters.length;
+    }
+
+    public void inc(int slot) {
+        add(slot, 1L);
+    }
+
+    public void add(int slot, long delta) {
+        Buffer b = local.get();
+        AtomicLongArray totals = b.totals;
+        totals.setRelease(slot, totals.getPlain(slot) + delta);
+        // closed is read after the store, so either close()'s flush sees this
+        // record or this thread flushes it itself
+        if (++b.pending >= flushThreshold || closed.get()) {
+            b.pending = 0;
+            b.flush();
+        }
+    }
+
+    /** Pushes every thread's unflushed deltas into the counters. */
+    public void flush() {
+        for (Buffer b : buffers) {
+            // checked before the flush: a thread that dies after it may still
+            // have recorded something this flush missed
+            boolean dead = !b.owner.isAlive();
+            b.flush();
+            if (dead) {
+                buffers.remove(b); // nothing more can arrive from a dead thread
+            }
+        }
+    }
+
+    /**
+     * Stops the periodic flush, flushes once more and unregisters from the
+     * registry, which stops flushing it. Records after this are written
+     * through to the counters. Closing twice is a no-op.
+     */
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        timer.cancel(false);
+        flush();
+        onClose.accept(this);
+    }
+
+    private Buffer newBuffer() {
+        Buffer b = new Buffer(Thread.currentThread(), counters.length);
+        buffers.add(b);
+        return b;
+    }
+
+    private final class Buffer {
+        final Thread owner;
+        final AtomicLongArray totals;
+        int pending; // owner thread only
+
+        // guarded by this
+        private final long[] flushed;
+
+        Buffer(Thread owner, int size) {
+            this.owner = owner;
+            this.totals = new AtomicLongArray(size);
+            this.flushed = new long[size];
+        }
+
+        synchronized void flush() {
+            for (int i = 0; i < flushed.length; i++) {
+                long total = totals.getAcquire(i);
+                long delta = total - flushed[i];
+                if (delta != 0) {
+                    counters[i].add(delta);
+                    flushed[i] = total;
+                }
+            }
+        }
+    }
+}
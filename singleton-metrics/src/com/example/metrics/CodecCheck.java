@@ -0,0 +1,79 @@
+package com.example.metrics;
+
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectOutputStream;
+
+/**
+ * Compares the compact snapshot codec with Java serialization of the registry,
+ * then folds frames from two simulated processes into one collector registry.
+ */
+public class CodecCheck {
+
+    public static void main(String[] args) throws Exception {
+        int keys = 5_000;
+        MetricsRegistry registry = MetricsRegistry.getInstance();
+        for (int i = 0; i < keys; i++) {
+            registry.counter("CODEC_KEY_" + i).add(i * 7L);
+        }
+
+        ByteArrayOutputStream javaSer = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(javaSer)) {
+            oos.writeObject(registry);
+        }
+
+        SnapshotEncoder encoder = new SnapshotEncoder();
+        SnapshotDecoder decoder = new SnapshotDecoder();
+        byte[] first = encoder.encode(registry);
+        decoder.decode(first);
+        for (int i = 0; i < 50; i++) {
+            registry.counter("CODEC_KEY_" + i).inc();
+        }
+        byte[] second = encoder.encode(registry);
+        int changed = decoder.decode(second);
+
+        System.out.println("Counters: " + registry.getAll().size());
+        System.out.println("ObjectOutputStream        : " + javaSer.size() + " bytes");
+        System.out.println("Codec first frame (full)  : " + first.length + " bytes");
+        System.out.println("Codec next frame (50 incs): " + second.length + " bytes, " + changed + " changed");
+        System.out.println("Decoded CODEC_KEY_49 = " + decoder.valueOf("CODEC_KEY_49")
+                + " (registry: " + registry.getCount("CODEC_KEY_49") + ")");
+
+        // Collector side: one decoder per source, all merging into the same registry.
+        SnapshotEncoder nodeA = new SnapshotEncoder();
+        SnapshotEncoder nodeB = new SnapshotEncoder();
+        SnapshotDecoder fromA = new SnapshotDecoder();
+        SnapshotDecoder fromB = new SnapshotDecoder();
+        CounterBuffer a = new CounterBuffer();
+        CounterBuffer b = new CounterBuffer();
+        a.add("CLUSTER_REQUESTS", 100);
+        b.add("CLUSTER_REQUESTS", 250);
+        b.add("CLUSTER_ERRORS", 3);
+        fromA.mergeInto(nodeA.encode(a), registry);
+        fromB.mergeInto(nodeB.encode(b), registry);
+        a.clear();
+        a.add("CLUSTER_REQUESTS", 130); // node A served 30 more since its last frame
+        fromA.mergeInto(nodeA.encode(a), registry);
+
+        System.out.println("\nMerged CLUSTER_REQUESTS = " + registry.getCount("CLUSTER_REQUESTS") + " (expected 380)");
+        System.out.println("Merged CLUSTER_ERRORS   = " + registry.getCount("CLUSTER_ERRORS") + " (expected 3)");
+
+        // A name listed twice in one snapshot is sent once (summed); later ids must stay in sync.
+        SnapshotEncoder dupEncoder = new SnapshotEncoder();
+        SnapshotDecoder dupDecoder = new SnapshotDecoder();
+        CounterBuffer dup = new CounterBuffer();
+        dup.add("DUP", 5);
+        dup.add("OTHER", 1);
+        dup.add("DUP", 7);
+        dupDecoder.decode(dupEncoder.encode(dup));
+        long firstDup = dupDecoder.valueOf("DUP");
+        dup.clear();
+        dup.add("DUP", 20);
+        dup.add("AFTER", 4);
+        dup.add("OTHER", 1);
+        dupDecoder.decode(dupEncoder.encode(dup));
+        System.out.println("\nDuplicate names: first frame DUP=" + firstDup + " (expected 12)");
+        System.out.println("Next frame: keys=" + dupDecoder.keyCount() + " DUP=" + dupDecoder.valueOf("DUP")
+                + " OTHER=" + dupDecoder.valueOf("OTHER") + " AFTER=" + dupDecoder.valueOf("AFTER")
+                + " (expected 3, 20, 1, 4)");
+    }
+}
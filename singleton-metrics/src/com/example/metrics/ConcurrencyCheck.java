@@ -1,18 +1,27 @@
 package com.example.metrics;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * Spawns many threads racing on getInstance().
  * Starter is expected to sometimes create >1 instance. After fix, must always be 1.
+ *
+ * Then hammers increment() from the same number of threads and reports ops/sec
+ * for the old synchronized HashMap engine ("before"), the registry ("after")
+ * and a pre-resolved Counter handle.
  */
 public class ConcurrencyCheck {
 
+    private static final int OPS_PER_THREAD = 200_000;
+
     public static void main(String[] args) throws Exception {
         int threads = 80;
         ExecutorService pool = Executors.newFixedThreadPool(threads);
@@ -45,5 +54,71 @@ public class ConcurrencyCheck {
 
         System.out.println("Unique instances seen: " + identities.size());
         System.out.println("Identities: " + identities);
+
+        System.out.println("\nThroughput (" + threads + " threads x " + OPS_PER_THREAD + " increments):");
+        LockedCounters before = new LockedCounters();
+        MetricsRegistry after = MetricsRegistry.getInstance();
+        after.setCount("THROUGHPUT_TEST", 0);
+
+        // warm-up so both engines are measured after JIT compilation
+        hammer(threads, before::increment);
+        hammer(threads, after::increment);
+        Counter handle = after.counter("THROUGHPUT_TEST");
+        hammer(threads, key -> handle.inc());
+        before.counters.clear();
+        after.setCount("THROUGHPUT_TEST", 0);
+
+        double beforeOps = hammer(threads, before::increment);
+        double afterOps = hammer(threads, after::increment);
+        long afterCount = after.getCount("THROUGHPUT_TEST");
+        after.setCount("THROUGHPUT_TEST", 0);
+        double handleOps = hammer(threads, key -> handle.inc());
+
+        long expected = (long) threads * OPS_PER_THREAD;
+        System.out.printf("  before (synchronized HashMap): %,.0f ops/sec, count=%d%n",
+                beforeOps, before.getCount("THROUGHPUT_TEST"));
+        System.out.printf("  after  (LongAdder cells)     : %,.0f ops/sec, count=%d%n",
+                afterOps, afterCount);
+        System.out.printf("  handle (Counter.inc)         : %,.0f ops/sec, count=%d%n",
+                handleOps, handle.get());
+        System.out.println("  expected count: " + expected);
+    }
+
+    private static double hammer(int threads, Consumer<String> increment) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            Thread t = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int n = 0; n < OPS_PER_THREAD; n++) {
+                        increment.accept("THROUGHPUT_TEST");
+                    }
+                } catch (InterruptedException ignored) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+            t.start();
+        }
+        long t0 = System.nanoTime();
+        start.countDown();
+        done.await();
+        long elapsed = System.nanoTime() - t0;
+        return (double) threads * OPS_PER_THREAD / (elapsed / 1e9);
+    }
+
+    // The engine MetricsRegistry used before: one monitor, one boxed Long per hit.
+    private static final class LockedCounters {
+        private final Map<String, Long> counters = new HashMap<>();
+
+        synchronized void increment(String key) {
+            counters.put(key, getCount(key) + 1);
+        }
+
+        synchronized long getCount(String key) {
+            return counters.getOrDefault(key, 0L);
+        }
     }
 }
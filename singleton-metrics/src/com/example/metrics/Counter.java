@@ -0,0 +1,52 @@
+package com.example.metrics;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pre-resolved counter handle obtained from {@link MetricsRegistry#counter(String)}.
+ *
+ * Callers on hot paths keep the handle in a field, so each hit is a single
+ * striped atomic add with no string hashing or map lookup. When persistence is
+ * enabled the registry hands out {@link MappedCounter}s instead, which keep the
+ * value in a memory-mapped slot.
+ */
+public class Counter implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final String name;
+    private final LongAdder cell;
+
+    Counter(String name) {
+        this(name, new LongAdder());
+    }
+
+    // Subclasses that keep their value elsewhere pass a null cell.
+    Counter(String name, LongAdder cell) {
+        this.name = name;
+        this.cell = cell;
+    }
+
+    public String getName() { return name; }
+
+    public void inc() {
+        cell.increment();
+    }
+
+    public void add(long delta) {
+        cell.add(delta);
+    }
+
+    public long get() {
+        return cell.sum();
+    }
+
+    // Not atomic with respect to concurrent inc()/add(); used for seeding.
+    void set(long value) {
+        cell.reset();
+        cell.add(value);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.metrics;
+
+import java.util.Arrays;
+
+/**
+ * Reusable parallel-array buffer filled by
+ * {@link MetricsRegistry#snapshotCounters(CounterBuffer)}.
+ *
+ * Entries 0..size()-1 are valid after a snapshot. The arrays only grow when the
+ * number of counters grows, so a scraper that keeps one buffer does not
+ * allocate on steady-state scrapes.
+ */
+public final class CounterBuffer {
+
+    private String[] names;
+    private long[] values;
+    private int size;
+
+    public CounterBuffer() {
+        this(64);
+    }
+
+    public CounterBuffer(int initialCapacity) {
+        int cap = Math.max(1, initialCapacity);
+        names = new String[cap];
+        values = new long[cap];
+    }
+
+    public int size() { return size; }
+
+    public String nameAt(int i) {
+        if (i >= size) throw new IndexOutOfBoundsException(i);
+        return names[i];
+    }
+
+    public long valueAt(int i) {
+        if (i >= size) throw new IndexOutOfBoundsException(i);
+        return values[i];
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    void add(String name, long value) {
+        if (size == names.length) {
+            int cap = names.length * 2;
+            names = Arrays.copyOf(names, cap);
+            values = Arrays.copyOf(values, cap);
+        }
+        names[size] = name;
+        values[size] = value;
+        size++;
+    }
+}
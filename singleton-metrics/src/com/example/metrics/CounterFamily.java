@@ -0,0 +1,138 @@
+package com.example.metrics;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A counter with named dimensions, registered once via
+ * {@link MetricsRegistry#counterFamily(String, int, String...)}.
+ *
+ * labels(...) interns the value tuple into a {@link LabelSet} and returns that
+ * tuple's child {@link Counter}; callers cache the child so the per-request
+ * cost is the same single atomic add as a flat counter. At most maxChildren
+ * distinct tuples are kept; further tuples all share one overflow child whose
+ * label values are {@value #OVERFLOW_VALUE}, so a runaway label cannot grow
+ * memory without bound.
+ */
+public final class CounterFamily implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public static final String OVERFLOW_VALUE = "__overflow__";
+
+    private final String name;
+    private final String[] labelNames;
+    private final int maxChildren;
+    private final ConcurrentHashMap<List<String>, LabelSet> interned = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<Counter> children;
+    private final AtomicInteger nextId = new AtomicInteger();
+    private final LabelSet overflowLabels;
+    private final Counter overflow;
+
+    CounterFamily(String name, int maxChildren, String[] labelNames) {
+        if (maxChildren <= 0) {
+            throw new IllegalArgumentException("maxChildren must be positive: " + maxChildren);
+        }
+        this.name = name;
+        this.labelNames = labelNames.clone();
+        this.maxChildren = maxChildren;
+        this.children = new AtomicReferenceArray<>(maxChildren);
+        String[] overflowValues = new String[labelNames.length];
+        Arrays.fill(overflowValues, OVERFLOW_VALUE);
+        this.overflowLabels = new LabelSet(maxChildren, name, labelNames, overflowValues);
+        this.overflow = new Counter(overflowLabels.flatName());
+    }
+
+    public String getName() { return name; }
+
+    public int labelCount() { return labelNames.length; }
+
+    public String labelName(int i) { return labelNames[i]; }
+
+    public int getMaxChildren() { return maxChildren; }
+
+    /** Returns the child counter for the given label values, in labelNames order. */
+    public Counter labels(String... values) {
+        if (values.length != labelNames.length) {
+            throw new IllegalArgumentException(name + " expects " + labelNames.length
+                    + " label values, got " + values.length);
+        }
+        List<String> key = List.of(values);
+        LabelSet set = interned.get(key);
+        if (set == null) {
+            set = interned.computeIfAbsent(key, k -> intern(values));
+            if (set == null) {
+                return overflow;
+            }
+        }
+        return children.get(set.getId());
+    }
+
+    boolean sameLabels(String[] names) {
+        return Arrays.equals(labelNames, names);
+    }
+
+    /** Calls the visitor once per child, overflow last if it was ever used. */
+    void visit(MetricsVisitor visitor) {
+        int n = Math.min(nextId.get(), maxChildren);
+        for (int id = 0; id < n; id++) {
+            Counter c = children.get(id);
+            if (c != null) {
+                visitor.visitLabeledCounter(this, labelsOf(c), c.get());
+            }
+        }
+        long overflowCount = overflow.get();
+        if (overflowCount != 0) {
+            visitor.visitLabeledCounter(this, overflowLabels, overflowCount);
+        }
+    }
+
+    /** Appends every child under its flat name, overflow last if it was ever used. */
+    void copyTo(CounterBuffer buffer) {
+        int n = Math.min(nextId.get(), maxChildren);
+        for (int id = 0; id < n; id++) {
+            Counter c = children.get(id);
+            if (c != null) {
+                buffer.add(c.getName(), c.get());
+            }
+        }
+        long overflowCount = overflow.get();
+        if (overflowCount != 0) {
+            buffer.add(overflow.getName(), overflowCount);
+        }
+    }
+
+    // Returns null (no mapping recorded) once the cardinality limit is reached.
+    private LabelSet intern(String[] values) {
+        int id = nextId.getAndIncrement();
+        if (id >= maxChildren) {
+            nextId.set(maxChildren);
+            return null;
+        }
+        LabelSet set = new LabelSet(id, name, labelNames, values);
+        children.set(id, new LabeledCounter(set));
+        return set;
+    }
+
+    private LabelSet labelsOf(Counter c) {
+        return ((LabeledCounter) c).labels;
+    }
+
+    private static final class LabeledCounter extends Counter {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final LabelSet labels;
+
+        LabeledCounter(LabelSet labels) {
+            super(labels.flatName());
+            this.labels = labels;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.metrics;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * Exponentially weighted moving average of a per-second rate, updated once per
+ * tick (same smoothing as the Unix load average). Not thread-safe on its own;
+ * {@link Meter} only ticks it while holding its own lock.
+ */
+final class Ewma implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final double alpha;
+    private final double tickSeconds;
+    private volatile double rate;
+    private boolean initialized;
+
+    Ewma(int minutes, double tickSeconds) {
+        this.alpha = 1.0 - Math.exp(-tickSeconds / 60.0 / minutes);
+        this.tickSeconds = tickSeconds;
+    }
+
+    void tick(long eventsInTick) {
+        double instant = eventsInTick / tickSeconds;
+        if (initialized) {
+            rate += alpha * (instant - rate);
+        } else {
+            rate = instant;
+            initialized = true;
+        }
+    }
+
+    /** Events per second. */
+    double getRate() {
+        return rate;
+    }
+}
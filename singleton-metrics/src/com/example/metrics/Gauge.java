@@ -0,0 +1,36 @@
+package com.example.metrics;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Point-in-time value: either set explicitly or read from a supplier on demand.
+ *
+ * Suppliers are not serialized; a deserialized gauge reports its last set value.
+ */
+public final class Gauge implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final String name;
+    private final AtomicLong value = new AtomicLong();
+    private final transient LongSupplier supplier;
+
+    Gauge(String name, LongSupplier supplier) {
+        this.name = name;
+        this.supplier = supplier;
+    }
+
+    public String getName() { return name; }
+
+    public void set(long v) {
+        value.set(v);
+    }
+
+    public long get() {
+        return supplier != null ? supplier.getAsLong() : value.get();
+    }
+}
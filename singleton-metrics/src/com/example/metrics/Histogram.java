@@ -0,0 +1,77 @@
+package com.example.metrics;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram with fixed-memory log-linear buckets (HDR-style).
+ *
+ * Values below 2^SUB_BITS get one bucket each; above that every power of two is
+ * split into 2^SUB_BITS linear sub-buckets, so any recorded value is reported
+ * within ~3% of its true value. The whole long range fits in {@link #BUCKETS}
+ * slots, record() is a couple of atomic adds and never allocates.
+ */
+public final class Histogram implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    static final int SUB_BITS = 5;
+    static final int SUB_COUNT = 1 << SUB_BITS;
+    static final int BUCKETS = (64 - SUB_BITS) * SUB_COUNT;
+
+    private final String name;
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    Histogram(String name) {
+        this.name = name;
+    }
+
+    public String getName() { return name; }
+
+    /** Records one observation; negative values are clamped to zero. */
+    public void record(long nanos) {
+        long v = Math.max(nanos, 0L);
+        buckets.getAndIncrement(bucketIndex(v));
+        sum.add(v);
+        long m = max.get();
+        while (v > m && !max.compareAndSet(m, v)) {
+            m = max.get();
+        }
+    }
+
+    /** Copies the current buckets; concurrent record() calls are not blocked. */
+    public HistogramSnapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            count += counts[i];
+        }
+        return new HistogramSnapshot(name, counts, count, sum.sum(), max.get());
+    }
+
+    static int bucketIndex(long v) {
+        if (v < SUB_COUNT) {
+            return (int) v;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(v) - SUB_BITS;
+        int mantissa = (int) (v >>> shift); // in [SUB_COUNT, 2 * SUB_COUNT)
+        return (shift + 1) * SUB_COUNT + (mantissa - SUB_COUNT);
+    }
+
+    /** Highest value that maps to the given bucket. */
+    static long bucketUpperBound(int index) {
+        if (index < SUB_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_COUNT - 1;
+        long mantissa = index % SUB_COUNT + SUB_COUNT;
+        return ((mantissa + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.metrics;
+
+/**
+ * Immutable point-in-time copy of a {@link Histogram} for percentile queries.
+ */
+public final class HistogramSnapshot {
+
+    private final String name;
+    private final long[] counts;
+    private final long count;
+    private final long sum;
+    private final long max;
+
+    HistogramSnapshot(String name, long[] counts, long count, long sum, long max) {
+        this.name = name;
+        this.counts = counts;
+        this.count = count;
+        this.sum = sum;
+        this.max = max;
+    }
+
+    public String getName() { return name; }
+    public long getCount() { return count; }
+    public long getSum() { return sum; }
+    public long getMax() { return max; }
+
+    public double getMean() {
+        return count == 0 ? 0.0 : (double) sum / count;
+    }
+
+    /**
+     * Value at the given quantile (0.5 = p50, 0.999 = p999), reported as the
+     * upper bound of the bucket that holds it and never above the recorded max.
+     */
+    public long percentile(double quantile) {
+        if (count == 0) {
+            return 0L;
+        }
+        double q = Math.min(Math.max(quantile, 0.0), 1.0);
+        long rank = Math.max(1L, (long) Math.ceil(q * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(Histogram.bucketUpperBound(i), max);
+            }
+        }
+        return max;
+    }
+
+    public long p50() { return percentile(0.50); }
+    public long p99() { return percentile(0.99); }
+    public long p999() { return percentile(0.999); }
+
+    @Override
+    public String toString() {
+        return name + " count=" + count + " p50=" + p50() + " p99=" + p99()
+                + " p999=" + p999() + " max=" + max;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.metrics;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * Interned label tuple of a {@link CounterFamily}.
+ *
+ * Like MarkerStyle in the flyweight exercise, each distinct tuple exists once
+ * per family and is identified by a compact id, so children can be stored in
+ * an array and compared by reference.
+ */
+public final class LabelSet implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final int id;
+    private final String[] values;
+    private final String flatName;
+
+    LabelSet(int id, String familyName, String[] labelNames, String[] values) {
+        this.id = id;
+        this.values = values.clone();
+        StringBuilder sb = new StringBuilder(familyName).append('{');
+        for (int i = 0; i < labelNames.length; i++) {
+            if (i > 0) sb.append(',');
+            sb.append(labelNames[i]).append('=').append(values[i]);
+        }
+        this.flatName = sb.append('}').toString();
+    }
+
+    public int getId() { return id; }
+
+    public int size() { return values.length; }
+
+    public String value(int i) { return values[i]; }
+
+    /** Flat key such as {@code REQUESTS_TOTAL{route=/x,code=200}}, used by getAll(). */
+    public String flatName() { return flatName; }
+
+    @Override
+    public String toString() {
+        return flatName;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.metrics;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Writes a large metrics.properties (200k keys by default) and times the
+ * Properties-based loader against the streaming loadFromFile().
+ *
+ * Usage: java com.example.metrics.LoaderBenchmark [keys]
+ */
+public class LoaderBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int keys = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int rounds = 5;
+
+        Path file = Files.createTempFile("metrics-bench", ".properties");
+        try {
+            writeFile(file, keys);
+            MetricsLoader loader = new MetricsLoader();
+            MetricsRegistry registry = MetricsRegistry.getInstance();
+
+            loader.loadWithProperties(file.toString());
+            Map<String, Long> expected = registry.getAll();
+            for (String key : expected.keySet()) {
+                registry.setCount(key, Long.MIN_VALUE); // so a skipped key cannot pass
+            }
+            loader.loadFromFile(file.toString());
+            System.out.println("Loaders agree: " + expected.equals(registry.getAll())
+                    + " (" + expected.size() + " keys)");
+
+            long best = Long.MAX_VALUE;
+            for (int r = 0; r < rounds; r++) {
+                long t0 = System.nanoTime();
+                loader.loadWithProperties(file.toString());
+                best = Math.min(best, System.nanoTime() - t0);
+            }
+            System.out.printf("Properties loader: %.1f ms (best of %d)%n", best / 1e6, rounds);
+
+            best = Long.MAX_VALUE;
+            for (int r = 0; r < rounds; r++) {
+                long t0 = System.nanoTime();
+                loader.loadFromFile(file.toString());
+                best = Math.min(best, System.nanoTime() - t0);
+            }
+            System.out.printf("Streaming loader : %.1f ms (best of %d)%n", best / 1e6, rounds);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void writeFile(Path file, int keys) throws IOException {
+        try (BufferedWriter w = Files.newBufferedWriter(file, StandardCharsets.ISO_8859_1)) {
+            w.write("# seeded from previous run\n");
+            for (int i = 0; i < keys; i++) {
+                switch (i % 4) {
+                    case 0 -> w.write("BENCH_KEY_" + i + "=" + i + "\n");
+                    case 1 -> w.write("BENCH_KEY_" + i + " = " + (i * 31L) + "\r\n");
+                    case 2 -> w.write("  BENCH_KEY_" + i + ":" + (-i) + "\n");
+                    default -> w.write("BENCH_KEY_" + i + "\t" + "bogus\n");
+                }
+            }
+        }
+    }
+}
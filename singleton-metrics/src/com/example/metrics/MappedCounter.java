@@ -0,0 +1,52 @@
+package com.example.metrics;
+
+import java.io.ObjectStreamException;
+import java.io.Serial;
+import java.nio.ByteBuffer;
+
+/**
+ * Counter whose value lives in a slot of a {@link MappedCounterStore} file.
+ * Each update is one atomic instruction on the mapped page, with no syscall.
+ */
+final class MappedCounter extends Counter {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final transient ByteBuffer page;
+    private final transient int offset;
+
+    MappedCounter(String name, ByteBuffer page, int offset) {
+        super(name, null);
+        this.page = page;
+        this.offset = offset;
+    }
+
+    @Override
+    public void inc() {
+        MappedCounterStore.LONGS.getAndAdd(page, offset, 1L);
+    }
+
+    @Override
+    public void add(long delta) {
+        MappedCounterStore.LONGS.getAndAdd(page, offset, delta);
+    }
+
+    @Override
+    public long get() {
+        return (long) MappedCounterStore.LONGS.getVolatile(page, offset);
+    }
+
+    @Override
+    void set(long value) {
+        MappedCounterStore.LONGS.setVolatile(page, offset, value);
+    }
+
+    // The mapping cannot travel; serialize the current value as a heap counter.
+    @Serial
+    private Object writeReplace() throws ObjectStreamException {
+        Counter copy = new Counter(getName());
+        copy.set(get());
+        return copy;
+    }
+}
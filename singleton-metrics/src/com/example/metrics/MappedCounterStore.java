@@ -0,0 +1,205 @@
+package com.example.metrics;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Memory-mapped slot table backing persistent counters.
+ *
+ * File layout (native byte order, so the file is tied to the machine's
+ * endianness):
+ * <pre>
+ *   header (64 bytes): int magic, int version, int capacity, int used
+ *   slot   (64 bytes): long value, short keyLength, key bytes (UTF-8, max 54)
+ * </pre>
+ * Counter values are updated in place through the mapping, so increments are
+ * durable as soon as the OS writes the page back (or on {@link #force()}), and
+ * a restarted process reattaches by mapping the file and scanning the used
+ * slots.
+ *
+ * When the table fills, it is grown to twice its capacity by remapping a
+ * larger region of the same file. Existing handles keep their old mapping,
+ * which shares pages with the new one, so no counter has to move.
+ * {@link #compact(Path)} rewrites a detached file without its zero-valued
+ * slots.
+ */
+final class MappedCounterStore {
+
+    static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    static final int MAX_KEY_BYTES = 54;
+
+    private static final int MAGIC = 0x4D524547; // "MREG"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int SLOT_BYTES = 64;
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int USED_OFFSET = 12;
+    private static final int KEY_LENGTH_OFFSET = 8;
+    private static final int KEY_OFFSET = 10;
+
+    private final FileChannel channel;
+
+    // guarded by this
+    private MappedByteBuffer page;
+    private int capacity;
+    private int used;
+
+    private MappedCounterStore(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    /** Opens (or creates with initialSlots) the slot table at the given path. */
+    static MappedCounterStore open(Path file, int initialSlots) throws IOException {
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedCounterStore store = new MappedCounterStore(channel);
+        try {
+            store.attach(Math.max(1, initialSlots));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return store;
+    }
+
+    private void attach(int initialSlots) throws IOException {
+        if (channel.size() == 0) {
+            capacity = initialSlots;
+            page = map(capacity);
+            page.order(ByteOrder.nativeOrder());
+            page.putInt(0, MAGIC);
+            page.putInt(4, VERSION);
+            page.putInt(CAPACITY_OFFSET, capacity);
+            page.putInt(USED_OFFSET, 0);
+            return;
+        }
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+        header.order(ByteOrder.nativeOrder());
+        if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            throw new IOException("Not a metrics slot file (bad magic/version)");
+        }
+        capacity = header.getInt(CAPACITY_OFFSET);
+        used = header.getInt(USED_OFFSET);
+        if (used < 0 || used > capacity) {
+            throw new IOException("Corrupt metrics slot file: used=" + used + " capacity=" + capacity);
+        }
+        page = map(capacity);
+        page.order(ByteOrder.nativeOrder());
+    }
+
+    /** Handles for every slot already in the file, in slot order. */
+    synchronized List<MappedCounter> existingCounters() {
+        List<MappedCounter> out = new ArrayList<>(used);
+        for (int i = 0; i < used; i++) {
+            int slot = HEADER_BYTES + i * SLOT_BYTES;
+            int len = page.getShort(slot + KEY_LENGTH_OFFSET);
+            byte[] key = new byte[len];
+            page.get(slot + KEY_OFFSET, key);
+            out.add(new MappedCounter(new String(key, StandardCharsets.UTF_8), page, slot));
+        }
+        return out;
+    }
+
+    /** Claims a new zeroed slot for the key, growing the table if it is full. */
+    synchronized MappedCounter allocate(String name) {
+        byte[] key = name.getBytes(StandardCharsets.UTF_8);
+        if (key.length > MAX_KEY_BYTES) {
+            throw new IllegalArgumentException("Metric name longer than " + MAX_KEY_BYTES
+                    + " UTF-8 bytes cannot be persisted: " + name);
+        }
+        if (used == capacity) {
+            grow();
+        }
+        int slot = HEADER_BYTES + used * SLOT_BYTES;
+        page.putShort(slot + KEY_LENGTH_OFFSET, (short) key.length);
+        page.put(slot + KEY_OFFSET, key);
+        LONGS.setVolatile(page, slot, 0L);
+        used++;
+        page.putInt(USED_OFFSET, used);
+        return new MappedCounter(name, page, slot);
+    }
+
+    synchronized int capacity() {
+        return capacity;
+    }
+
+    synchronized int used() {
+        return used;
+    }
+
+    /** Asks the OS to write dirty pages back to the file. */
+    synchronized void force() {
+        page.force();
+    }
+
+    synchronized void close() throws IOException {
+        page.force();
+        channel.close();
+    }
+
+    private void grow() {
+        int newCapacity = capacity * 2;
+        try {
+            MappedByteBuffer bigger = map(newCapacity);
+            bigger.order(ByteOrder.nativeOrder());
+            bigger.putInt(CAPACITY_OFFSET, newCapacity);
+            page = bigger;
+            capacity = newCapacity;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not grow metrics slot file to " + newCapacity + " slots", e);
+        }
+    }
+
+    private MappedByteBuffer map(int slots) throws IOException {
+        long size = HEADER_BYTES + (long) slots * SLOT_BYTES;
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Slot table too large: " + slots + " slots");
+        }
+        return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    /**
+     * Rewrites a slot file that no process has attached, dropping zero-valued
+     * slots and shrinking capacity to twice the surviving slot count.
+     * Returns the number of slots kept.
+     */
+    static int compact(Path file) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".compact");
+        Files.deleteIfExists(tmp);
+        int kept = 0;
+        MappedCounterStore src = open(file, 1);
+        try {
+            List<MappedCounter> live = new ArrayList<>();
+            for (MappedCounter c : src.existingCounters()) {
+                if (c.get() != 0) {
+                    live.add(c);
+                }
+            }
+            MappedCounterStore dst = open(tmp, Math.max(1, live.size() * 2));
+            try {
+                for (MappedCounter c : live) {
+                    dst.allocate(c.getName()).set(c.get());
+                    kept++;
+                }
+            } finally {
+                dst.close();
+            }
+        } finally {
+            src.close();
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return kept;
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.metrics;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Counts events and reports 1/5/15-minute EWMA rates plus the mean rate.
+ *
+ * mark() is a single striped add. The moving averages are ticked lazily by
+ * whichever reader asks for a rate, catching up on every 5 s tick that elapsed
+ * since the previous read, so no background thread is needed. Events marked
+ * between two reads are spread evenly over the ticks in between, so a slow
+ * scraper sees the same rates as a fast one.
+ */
+public final class Meter implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private static final long TICK_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final double TICK_SECONDS = 5.0;
+
+    private final String name;
+    private final LongAdder count = new LongAdder();
+    private final Ewma m1 = new Ewma(1, TICK_SECONDS);
+    private final Ewma m5 = new Ewma(5, TICK_SECONDS);
+    private final Ewma m15 = new Ewma(15, TICK_SECONDS);
+    private final long startNanos;
+    private final transient LongSupplier nanoClock;
+
+    // guarded by this
+    private long lastTickNanos;
+    private long lastTickCount;
+
+    Meter(String name) {
+        this(name, System::nanoTime);
+    }
+
+    /** Clock in nanoseconds; MeterCheck drives a fake one. */
+    Meter(String name, LongSupplier nanoClock) {
+        this.name = name;
+        this.nanoClock = nanoClock;
+        this.startNanos = nanoClock.getAsLong();
+        this.lastTickNanos = startNanos;
+    }
+
+    public String getName() { return name; }
+
+    public void mark() {
+        count.increment();
+    }
+
+    public void mark(long n) {
+        count.add(n);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public double getOneMinuteRate() {
+        tickIfNecessary();
+        return m1.getRate();
+    }
+
+    public double getFiveMinuteRate() {
+        tickIfNecessary();
+        return m5.getRate();
+    }
+
+    public double getFifteenMinuteRate() {
+        tickIfNecessary();
+        return m15.getRate();
+    }
+
+    /** Events per second since the meter was created. */
+    public double getMeanRate() {
+        long elapsed = now() - startNanos;
+        return elapsed <= 0 ? 0.0 : getCount() / (elapsed / 1e9);
+    }
+
+    private synchronized void tickIfNecessary() {
+        long now = now();
+        long ticks = (now - lastTickNanos) / TICK_NANOS;
+        if (ticks <= 0) {
+            return;
+        }
+        long current = count.sum();
+        // Events since the last tick are split evenly over the missed ticks,
+        // the remainder going to the last one.
+        long events = current - lastTickCount;
+        long perTick = events / ticks;
+        for (long i = 1; i <= ticks; i++) {
+            long inTick = i == ticks ? events - perTick * (ticks - 1) : perTick;
+            m1.tick(inTick);
+            m5.tick(inTick);
+            m15.tick(inTick);
+        }
+        lastTickCount = current;
+        lastTickNanos += ticks * TICK_NANOS;
+    }
+
+    private long now() {
+        // the clock is not serialized; a deserialized meter reads the system clock
+        return nanoClock != null ? nanoClock.getAsLong() : System.nanoTime();
+    }
+}
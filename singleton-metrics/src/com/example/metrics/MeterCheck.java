@@ -0,0 +1,49 @@
+package com.example.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drives a Meter with a fake clock at a constant 100 events/s and reads its
+ * rates once per scrape interval, checking that the 1/5/15-minute averages
+ * settle on the true rate whether the scraper reads every 5 s or every 60 s.
+ */
+public class MeterCheck {
+
+    private static final long SECOND = 1_000_000_000L;
+    private static final double RATE = 100.0;
+    private static final double TOLERANCE = 0.03;
+
+    public static void main(String[] args) {
+        int failures = 0;
+        for (int scrapeSeconds : new int[] {5, 15, 60}) {
+            failures += check(scrapeSeconds);
+        }
+        System.out.println(failures == 0 ? "All meter checks passed" : failures + " meter check(s) failed");
+    }
+
+    // 30 simulated minutes: one mark per 10 ms, one read per scrape
+    private static int check(int scrapeSeconds) {
+        AtomicLong now = new AtomicLong(1_000 * SECOND);
+        Meter meter = new Meter("METER_CHECK", now::get);
+        long step = (long) (SECOND / RATE);
+        for (long t = 0; t < 30 * 60 * SECOND; t += step) {
+            now.addAndGet(step);
+            meter.mark();
+            if ((t + step) % (scrapeSeconds * SECOND) == 0) {
+                meter.getOneMinuteRate();
+            }
+        }
+        int failures = 0;
+        failures += expect("scrape " + scrapeSeconds + " s, m1", meter.getOneMinuteRate());
+        failures += expect("scrape " + scrapeSeconds + " s, m5", meter.getFiveMinuteRate());
+        failures += expect("scrape " + scrapeSeconds + " s, m15", meter.getFifteenMinuteRate());
+        return failures;
+    }
+
+    private static int expect(String what, double rate) {
+        boolean ok = Math.abs(rate - RATE) <= RATE * TOLERANCE;
+        System.out.printf("%s %s: %.2f/s%s%n", ok ? "ok  " : "FAIL", what, rate,
+                ok ? "" : " (expected " + RATE + " +/- " + (int) (TOLERANCE * 100) + "%)");
+        return ok ? 0 : 1;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+
+/**
+ * Minimal scrape endpoint: serves {@code GET /metrics} on a loopback port using
+ * the JDK's built-in HttpServer, so it can be exercised without any outside
+ * service. Pass port 0 to bind an ephemeral port and read it back via getPort().
+ */
+public class MetricsHttpServer {
+
+    private final HttpServer server;
+    private final MetricsRegistry registry;
+    private final PrometheusExporter exporter = new PrometheusExporter();
+
+    public MetricsHttpServer(MetricsRegistry registry, int port) throws IOException {
+        this.registry = registry;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/metrics", this::handle);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", PrometheusExporter.CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, 0); // chunked
+            try (OutputStream body = exchange.getResponseBody()) {
+                exporter.write(registry, body);
+            }
+        }
+    }
+}
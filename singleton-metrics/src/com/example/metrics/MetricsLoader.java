@@ -2,6 +2,12 @@ package com.example.metrics;
 
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 import java.util.Properties;
 
 /**
@@ -12,18 +18,41 @@ import java.util.Properties;
  *
  * TODO (student):
  *  - Use MetricsRegistry.getInstance() and remove all direct instantiation.
+ *
+ * loadFromFile() maps the file and parses {@code key=value} lines straight
+ * from the buffer in one pass, writing each value into the registry as it
+ * goes. Only the key String is allocated per line. Comments (# / !), blank
+ * lines and the '=' / ':' / whitespace separators behave as in
+ * java.util.Properties. Files that use backslash escapes or line continuations
+ * fall back to the Properties-based loader.
  */
 public class MetricsLoader {
 
     public MetricsRegistry loadFromFile(String path) throws IOException {
+        //Now no direct instantiation
+        MetricsRegistry registry = MetricsRegistry.getInstance();
+
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                return loadWithProperties(path);
+            }
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (!parse(buf, registry)) {
+                return loadWithProperties(path);
+            }
+        }
+        return registry;
+    }
+
+    // The original loader, kept for files the fast path does not handle and
+    // as the baseline in LoaderBenchmark.
+    MetricsRegistry loadWithProperties(String path) throws IOException {
         Properties props = new Properties();
         try (FileInputStream fis = new FileInputStream(path)) {
             props.load(fis);
         }
 
-        // BROKEN: should not create a new instance
-
-        //Now no direct instantiation
         MetricsRegistry registry = MetricsRegistry.getInstance();
 
         for (String key : props.stringPropertyNames()) {
@@ -38,4 +67,113 @@ public class MetricsLoader {
         }
         return registry;
     }
+
+    // Returns false (having written nothing) if the file needs the escape-aware loader.
+    private static boolean parse(MappedByteBuffer buf, MetricsRegistry registry) {
+        int limit = buf.limit();
+        for (int i = 0; i < limit; i++) {
+            if (buf.get(i) == '\\') {
+                return false;
+            }
+        }
+
+        byte[] key = new byte[64];
+        int pos = 0;
+        while (pos < limit) {
+            pos = skipBlanks(buf, pos, limit);
+            if (pos >= limit) {
+                break;
+            }
+            byte b = buf.get(pos);
+            if (b == '\n' || b == '\r') {
+                pos++;
+                continue;
+            }
+            if (b == '#' || b == '!') {
+                pos = endOfLine(buf, pos, limit);
+                continue;
+            }
+
+            int keyLen = 0;
+            while (pos < limit) {
+                b = buf.get(pos);
+                if (b == '=' || b == ':' || isBlank(b) || b == '\n' || b == '\r') {
+                    break;
+                }
+                if (keyLen == key.length) {
+                    key = Arrays.copyOf(key, key.length * 2);
+                }
+                key[keyLen++] = b;
+                pos++;
+            }
+
+            pos = skipBlanks(buf, pos, limit);
+            if (pos < limit && (buf.get(pos) == '=' || buf.get(pos) == ':')) {
+                pos = skipBlanks(buf, pos + 1, limit);
+            }
+
+            // Parse the value in place; anything that is not a plain long counts as 0,
+            // same as Long.parseLong failing in the Properties loader.
+            boolean negative = false;
+            boolean valid = false;
+            long value = 0;
+            if (pos < limit && (buf.get(pos) == '-' || buf.get(pos) == '+')) {
+                negative = buf.get(pos) == '-';
+                pos++;
+            }
+            while (pos < limit) {
+                b = buf.get(pos);
+                if (b < '0' || b > '9') {
+                    break;
+                }
+                // accumulate negatively so Long.MIN_VALUE parses without overflow
+                long next = value * 10 - (b - '0');
+                if (value < Long.MIN_VALUE / 10 || next > value) {
+                    valid = false;
+                    pos = endOfLine(buf, pos, limit);
+                    value = 0;
+                    break;
+                }
+                value = next;
+                valid = true;
+                pos++;
+            }
+            int end = endOfLine(buf, pos, limit);
+            if (skipBlanks(buf, pos, end) != end) {
+                valid = false;
+            }
+            pos = end;
+
+            long v;
+            if (!valid) {
+                v = 0L;
+            } else if (negative) {
+                v = value;
+            } else if (value == Long.MIN_VALUE) {
+                v = 0L; // out of range for a positive long
+            } else {
+                v = -value;
+            }
+            registry.setCount(new String(key, 0, keyLen, StandardCharsets.ISO_8859_1), v);
+        }
+        return true;
+    }
+
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t' || b == '\f';
+    }
+
+    private static int skipBlanks(MappedByteBuffer buf, int pos, int limit) {
+        while (pos < limit && isBlank(buf.get(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static int endOfLine(MappedByteBuffer buf, int pos, int limit) {
+        while (pos < limit && buf.get(pos) != '\n' && buf.get(pos) != '\r') {
+            pos++;
+        }
+        return pos;
+    }
 }
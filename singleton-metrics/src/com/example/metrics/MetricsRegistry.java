@@ -1,11 +1,18 @@
 package com.example.metrics;
 
+import java.io.IOException;
 import java.io.ObjectStreamException;
 import java.io.Serial;
 import java.io.Serializable;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.LongSupplier;
 
 /**
  * INTENTION: Global metrics registry (should be a Singleton).
@@ -20,6 +27,22 @@ import java.util.Map;
  *  1) Make it a proper lazy, thread-safe singleton (private ctor)
  *  2) Block reflection-based multiple construction
  *  3) Preserve singleton on serialization (readResolve)
+ *
+ * Counters are striped LongAdder cells in a ConcurrentHashMap, so increments
+ * never take the registry monitor and do not box a Long per hit. Hot paths can
+ * hold a {@link Counter} from counter(name) and skip the map lookup entirely.
+ * Latency {@link Histogram}s, {@link Gauge}s and rate {@link Meter}s live next
+ * to the counters in their own maps. Labeled {@link CounterFamily} children are
+ * reported by getAll()/visit() next to the flat counters, as are the
+ * whole-window sums of {@link WindowedCounter}s.
+ *
+ * All kinds share one namespace of exported series names: a meter claims
+ * NAME_total and NAME_rate, a histogram NAME, NAME_sum and NAME_count, every
+ * other kind just NAME. Registering a metric whose series are already taken
+ * is an error, since exporters would emit duplicate series.
+ *
+ * Optionally, enablePersistence(path) keeps counter values in a memory-mapped
+ * slot file ({@link MappedCounterStore}) so they survive restarts.
  */
 public class MetricsRegistry implements Serializable {
 
@@ -27,7 +50,15 @@ public class MetricsRegistry implements Serializable {
     private static final long serialVersionUID = 1L;
     //Volatile=>for double checked locking to work correctly
     private static volatile MetricsRegistry INSTANCE; // BROKEN: not volatile, not thread-safe
-    private final Map<String, Long> counters = new HashMap<>();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private final Map<String, Gauge> gauges = new ConcurrentHashMap<>();
+    private final Map<String, Meter> meters = new ConcurrentHashMap<>();
+    private final Map<String, CounterFamily> families = new ConcurrentHashMap<>();
+    private final Map<String, WindowedCounter> windowed = new ConcurrentHashMap<>();
+    private final Map<String, String> seriesOwners = new HashMap<>(); // guarded by itself
+    private transient volatile MappedCounterStore store;
+    private final transient List<BufferedRecorder> recorders = new CopyOnWriteArrayList<>();
 
     // BROKEN: should be private and should prevent second construction
     private MetricsRegistry() {
@@ -51,20 +82,301 @@ public class MetricsRegistry implements Serializable {
         return INSTANCE;
     }
 
-    public synchronized void setCount(String key, long value) {
-        counters.put(key, value);
+    /**
+     * Returns the handle for the named counter, registering it on first use.
+     * The same handle is returned for every call with the same name.
+     */
+    public Counter counter(String name) {
+        // Plain get first: once a key exists the hot path is a lock-free read,
+        // computeIfAbsent (which may lock a bin) only runs on first use.
+        Counter c = counters.get(name);
+        if (c == null) {
+            c = counters.computeIfAbsent(name, this::newCounter);
+        }
+        return c;
+    }
+
+    private Counter newCounter(String name) {
+        claim("counter " + name, name);
+        MappedCounterStore s = store;
+        return s == null ? new Counter(name) : s.allocate(name);
+    }
+
+    /**
+     * Reserves the exported series names for one metric (owner describes it
+     * in error messages). Called once per metric, when it is first created.
+     */
+    private void claim(String owner, String... series) {
+        synchronized (seriesOwners) {
+            for (String s : series) {
+                String taken = seriesOwners.get(s);
+                if (taken != null) {
+                    throw new IllegalArgumentException("Cannot register " + owner + ": series " + s
+                            + " is already exported by " + taken);
+                }
+            }
+            for (String s : series) {
+                seriesOwners.put(s, owner);
+            }
+        }
+    }
+
+    /**
+     * Switches counters to a memory-mapped slot file, creating it with
+     * initialSlots if missing, and re-registers every counter already stored
+     * in it. Must be called at startup before any counter is registered, so
+     * that no caller holds a heap-backed handle.
+     */
+    public synchronized void enablePersistence(Path file, int initialSlots) throws IOException {
+        if (store != null) {
+            throw new IllegalStateException("Persistence already enabled");
+        }
+        if (!counters.isEmpty()) {
+            throw new IllegalStateException("Enable persistence before registering counters");
+        }
+        MappedCounterStore opened = MappedCounterStore.open(file, initialSlots);
+        for (MappedCounter c : opened.existingCounters()) {
+            claim("counter " + c.getName(), c.getName());
+            counters.put(c.getName(), c);
+        }
+        store = opened;
+    }
+
+    /** Flushes persistent counters to disk; no-op when persistence is off. */
+    public void flushPersistent() {
+        MappedCounterStore s = store;
+        if (s != null) {
+            s.force();
+        }
+    }
+
+    /**
+     * Returns the labeled counter family, registering it on first use with the
+     * given label names and cardinality limit. Asking for an existing family
+     * with different label names or a different limit, or using a name
+     * already taken by another metric, is an error.
+     */
+    public CounterFamily counterFamily(String name, int maxChildren, String... labelNames) {
+        CounterFamily f = families.get(name);
+        if (f == null) {
+            f = families.computeIfAbsent(name, n -> newFamily(n, maxChildren, labelNames));
+        }
+        if (!f.sameLabels(labelNames)) {
+            throw new IllegalArgumentException("Family " + name + " already registered with other labels");
+        }
+        if (f.getMaxChildren() != maxChildren) {
+            throw new IllegalArgumentException("Family " + name + " already registered with maxChildren "
+                    + f.getMaxChildren());
+        }
+        return f;
+    }
+
+    private CounterFamily newFamily(String name, int maxChildren, String[] labelNames) {
+        CounterFamily f = new CounterFamily(name, maxChildren, labelNames); // validates arguments first
+        claim("counter family " + name, name);
+        return f;
+    }
+
+    /** Same as counterFamily(name, 1000, labelNames). */
+    public CounterFamily counterFamily(String name, String... labelNames) {
+        return counterFamily(name, 1000, labelNames);
+    }
+
+    /**
+     * Creates a thread-local buffered recorder over the named counters; slot i
+     * of the recorder is counterNames[i]. Deltas are flushed after
+     * flushThreshold events per thread, every flushIntervalMillis on a shared
+     * background thread, and whenever getAll(true) is called. close() on the
+     * recorder unregisters it.
+     */
+    public BufferedRecorder bufferedRecorder(int flushThreshold, long flushIntervalMillis, String... counterNames) {
+        Counter[] cs = new Counter[counterNames.length];
+        for (int i = 0; i < cs.length; i++) {
+            cs[i] = counter(counterNames[i]);
+        }
+        BufferedRecorder r = new BufferedRecorder(cs, flushThreshold, flushIntervalMillis, recorders::remove);
+        recorders.add(r);
+        return r;
+    }
+
+    /** Number of buffered recorders that are registered and not yet closed. */
+    int bufferedRecorderCount() {
+        return recorders == null ? 0 : recorders.size();
+    }
+
+    /** Flushes every buffered recorder created by this registry. */
+    public void flushBuffered() {
+        if (recorders == null) {
+            return; // deserialized copy: recorders are not serialized
+        }
+        for (BufferedRecorder r : recorders) {
+            r.flush();
+        }
+    }
+
+    /**
+     * Returns the named sliding-window counter, registering it on first use
+     * with the given window. Asking for an existing name with a different
+     * window is an error.
+     */
+    public WindowedCounter windowedCounter(String name, Duration window) {
+        WindowedCounter w = windowed.get(name);
+        if (w == null) {
+            w = windowed.computeIfAbsent(name, n -> {
+                WindowedCounter created = new WindowedCounter(n, window);
+                claim("windowed counter " + n, n);
+                return created;
+            });
+        }
+        if (w.getWindow().getSeconds() != window.getSeconds()) {
+            throw new IllegalArgumentException("Windowed counter " + name + " already registered with " + w.getWindow());
+        }
+        return w;
+    }
+
+    /** Returns the named latency histogram, registering it on first use. */
+    public Histogram histogram(String name) {
+        Histogram h = histograms.get(name);
+        if (h == null) {
+            h = histograms.computeIfAbsent(name, n -> {
+                claim("histogram " + n, n, n + "_sum", n + "_count");
+                return new Histogram(n);
+            });
+        }
+        return h;
+    }
+
+    /** Returns the named settable gauge, registering it on first use. */
+    public Gauge gauge(String name) {
+        return gauge(name, null);
+    }
+
+    /**
+     * Registers a gauge that reads its value from the supplier on every scrape.
+     * If the name is already registered the existing gauge is returned.
+     */
+    public Gauge gauge(String name, LongSupplier supplier) {
+        return gauges.computeIfAbsent(name, n -> {
+            claim("gauge " + n, n);
+            return new Gauge(n, supplier);
+        });
+    }
+
+    /** Returns the named rate meter, registering it on first use. */
+    public Meter meter(String name) {
+        Meter m = meters.get(name);
+        if (m == null) {
+            m = meters.computeIfAbsent(name, n -> {
+                claim("meter " + n, n + "_total", n + "_rate");
+                return new Meter(n);
+            });
+        }
+        return m;
+    }
+
+    // Not atomic with respect to concurrent increments of the same key;
+    // intended for seeding values (e.g. from MetricsLoader).
+    public void setCount(String key, long value) {
+        counter(key).set(value);
+    }
+
+    public void increment(String key) {
+        counter(key).inc();
+    }
+
+    public long getCount(String key) {
+        Counter c = counters.get(key);
+        return c == null ? 0L : c.get();
+    }
+
+    /** Like getAll(), optionally flushing buffered recorders first for fresh values. */
+    public Map<String, Long> getAll(boolean flushBuffered) {
+        if (flushBuffered) {
+            flushBuffered();
+        }
+        return getAll();
+    }
+
+    public Map<String, Long> getAll() {
+        Map<String, Long> copy = new HashMap<>();
+        for (Counter c : counters.values()) {
+            copy.put(c.getName(), c.get());
+        }
+        for (CounterFamily f : families.values()) {
+            f.visit(new MetricsVisitor() {
+                @Override
+                public void visitCounter(String name, long value) {
+                    copy.put(name, value);
+                }
+            });
+        }
+        for (WindowedCounter w : windowed.values()) {
+            copy.put(w.getName(), w.sum());
+        }
+        return Collections.unmodifiableMap(copy);
+    }
+
+    /**
+     * Copies every counter (including labeled children, but not windowed
+     * counters, whose sums are not monotonic) into the caller's reusable
+     * buffer and returns the number of entries. Cells are read with
+     * LongAdder.sum(), so increments are never blocked; the copy is weakly
+     * consistent across counters.
+     */
+    public int snapshotCounters(CounterBuffer buffer) {
+        buffer.clear();
+        for (Counter c : counters.values()) {
+            buffer.add(c.getName(), c.get());
+        }
+        for (CounterFamily f : families.values()) {
+            f.copyTo(buffer);
+        }
+        return buffer.size();
     }
 
-    public synchronized void increment(String key) {
-        counters.put(key, getCount(key) + 1);
+    /**
+     * Streams every registered metric to the visitor, one call per metric, with
+     * no intermediate collections or boxed values. Like snapshotCounters(),
+     * this never blocks writers.
+     */
+    public void visit(MetricsVisitor visitor) {
+        for (Counter c : counters.values()) {
+            visitor.visitCounter(c.getName(), c.get());
+        }
+        for (CounterFamily f : families.values()) {
+            f.visit(visitor);
+        }
+        for (WindowedCounter w : windowed.values()) {
+            visitor.visitWindowedCounter(w.getName(), w.getWindow().getSeconds(), w.sum());
+        }
+        for (Gauge g : gauges.values()) {
+            visitor.visitGauge(g.getName(), g.get());
+        }
+        for (Meter m : meters.values()) {
+            visitor.visitMeter(m.getName(), m.getCount(), m.getMeanRate(),
+                    m.getOneMinuteRate(), m.getFiveMinuteRate(), m.getFifteenMinuteRate());
+        }
+        for (Histogram h : histograms.values()) {
+            visitor.visitHistogram(h.getName(), h);
+        }
     }
 
-    public synchronized long getCount(String key) {
-        return counters.getOrDefault(key, 0L);
+    /** Current value of every registered gauge, keyed by name. */
+    public Map<String, Long> getGauges() {
+        Map<String, Long> copy = new HashMap<>();
+        for (Gauge g : gauges.values()) {
+            copy.put(g.getName(), g.get());
+        }
+        return Collections.unmodifiableMap(copy);
     }
 
-    public synchronized Map<String, Long> getAll() {
-        return Collections.unmodifiableMap(new HashMap<>(counters));
+    /** Snapshots of every registered histogram, keyed by name. */
+    public Map<String, HistogramSnapshot> getHistograms() {
+        Map<String, HistogramSnapshot> copy = new HashMap<>();
+        for (Histogram h : histograms.values()) {
+            copy.put(h.getName(), h.snapshot());
+        }
+        return Collections.unmodifiableMap(copy);
     }
 
     // TODO: implement readResolve() to preserve singleton on deserialization
@@ -73,4 +385,3 @@ public class MetricsRegistry implements Serializable {
         return getInstance();
     }
 }
-
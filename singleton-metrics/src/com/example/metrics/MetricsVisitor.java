@@ -0,0 +1,36 @@
+package com.example.metrics;
+
+/**
+ * Callback used by {@link MetricsRegistry#visit(MetricsVisitor)} to stream every
+ * metric without building an intermediate map or boxing values.
+ *
+ * All methods default to no-ops so a visitor only overrides the metric types it
+ * cares about.
+ */
+public interface MetricsVisitor {
+
+    default void visitCounter(String name, long value) {}
+
+    /**
+     * One child of a labeled counter family. Children of the same family are
+     * visited consecutively. By default they are reported as flat counters
+     * named like {@code REQUESTS_TOTAL{route=/x,code=200}}.
+     */
+    default void visitLabeledCounter(CounterFamily family, LabelSet labels, long value) {
+        visitCounter(labels.flatName(), value);
+    }
+
+    default void visitGauge(String name, long value) {}
+
+    /** Sum over the whole window; reported as a gauge by default since it can go down. */
+    default void visitWindowedCounter(String name, long windowSeconds, long sum) {
+        visitGauge(name, sum);
+    }
+
+    /** Rates are events per second. */
+    default void visitMeter(String name, long count, double meanRate,
+                            double oneMinuteRate, double fiveMinuteRate, double fifteenMinuteRate) {}
+
+    /** The live histogram; call {@link Histogram#snapshot()} if percentiles are needed. */
+    default void visitHistogram(String name, Histogram histogram) {}
+}
@@ -0,0 +1,105 @@
+package com.example.metrics;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * Times Prometheus rendering of 10k counters, then starts the local scrape
+ * endpoint and fetches it once over HTTP.
+ *
+ * Usage: java com.example.metrics.PrometheusCheck [port]   (default: ephemeral)
+ */
+public class PrometheusCheck {
+
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+        int keys = 10_000;
+        int renders = 200;
+
+        MetricsRegistry registry = MetricsRegistry.getInstance();
+        for (int i = 0; i < keys; i++) {
+            registry.counter("PROM_KEY_" + i).add(i);
+        }
+        registry.gauge("HEAP_USED_BYTES", () -> Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory());
+        registry.meter("REQUESTS").mark(5);
+        CounterFamily http = registry.counterFamily("HTTP_REQUESTS", 2, "route", "code");
+        http.labels("/x", "200").add(7);
+        http.labels("/say \"hi\"", "404").inc();
+        http.labels("/y", "500").inc(); // over the limit of 2 -> overflow child
+        // each would emit a second TYPE line (or series) for a name already exported
+        rejectsClash("counter vs family", () -> registry.counter("HTTP_REQUESTS"));
+        rejectsClash("gauge vs counter", () -> registry.gauge("PROM_KEY_1"));
+        rejectsClash("windowed vs counter", () -> registry.windowedCounter("PROM_KEY_2", Duration.ofSeconds(10)));
+        rejectsClash("counter vs meter _total", () -> registry.counter("REQUESTS_total"));
+        rejectsClash("histogram vs meter _rate", () -> registry.histogram("REQUESTS_rate"));
+        rejectsClash("family with another limit", () -> registry.counterFamily("HTTP_REQUESTS", 3, "route", "code"));
+        Histogram latency = registry.histogram("REQUEST_LATENCY_NANOS");
+        for (int i = 1; i <= 1000; i++) {
+            latency.record(i * 1_000L);
+        }
+
+        PrometheusExporter exporter = new PrometheusExporter();
+        CountingStream sink = new CountingStream();
+        for (int i = 0; i < renders; i++) { // warm-up
+            exporter.write(registry, sink);
+        }
+        sink.bytes = 0;
+        long t0 = System.nanoTime();
+        for (int i = 0; i < renders; i++) {
+            exporter.write(registry, sink);
+        }
+        long elapsed = System.nanoTime() - t0;
+        System.out.printf("Rendered %d metrics: %.2f ms/render, %d bytes/render%n",
+                keys + 3, elapsed / 1e6 / renders, sink.bytes / renders);
+
+        MetricsHttpServer server = new MetricsHttpServer(registry, port);
+        server.start();
+        try {
+            URL url = new URL("http://127.0.0.1:" + server.getPort() + "/metrics");
+            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+            int lines = 0;
+            System.out.println("\nGET " + url + " -> " + conn.getResponseCode());
+            try (BufferedReader in = new BufferedReader(
+                    new InputStreamReader(conn.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    if (!line.contains("PROM_KEY_")) {
+                        System.out.println("  " + line);
+                    }
+                    lines++;
+                }
+            }
+            System.out.println("  ... " + lines + " lines total");
+        } finally {
+            server.stop();
+        }
+    }
+
+    private static void rejectsClash(String what, Runnable register) {
+        try {
+            register.run();
+            System.out.println("Name clash NOT rejected: " + what);
+        } catch (IllegalArgumentException expected) {
+            System.out.println("Name clash rejected (" + what + "): " + expected.getMessage());
+        }
+    }
+
+    private static final class CountingStream extends OutputStream {
+        long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+    }
+}
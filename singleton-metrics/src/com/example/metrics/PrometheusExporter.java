@@ -0,0 +1,264 @@
+package com.example.metrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Renders every metric in a {@link MetricsRegistry} in the Prometheus text
+ * exposition format (version 0.0.4).
+ *
+ * Output is encoded byte by byte into one reusable buffer that is flushed to the
+ * target stream whenever it fills, so no per-line Strings are built. Counters
+ * and gauges map directly; counter families become one labeled series per
+ * child; meters become a {@code _total} counter plus a
+ * {@code _rate} gauge per window; histograms become summaries with
+ * p50/p99/p999 quantiles.
+ *
+ * One exporter instance serialises concurrent write() calls.
+ */
+public class PrometheusExporter implements MetricsVisitor {
+
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final double[] QUANTILES = {0.5, 0.99, 0.999};
+    private static final String[] QUANTILE_LABELS = {"0.5", "0.99", "0.999"};
+
+    private final byte[] buf;
+    private int pos;
+    private OutputStream out;
+    private CounterFamily lastFamily;
+
+    public PrometheusExporter() {
+        this(64 * 1024);
+    }
+
+    public PrometheusExporter(int bufferSize) {
+        this.buf = new byte[Math.max(256, bufferSize)];
+    }
+
+    public synchronized void write(MetricsRegistry registry, OutputStream target) throws IOException {
+        out = target;
+        pos = 0;
+        lastFamily = null;
+        try {
+            registry.visit(this);
+            flushBuffer();
+            target.flush();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            out = null;
+        }
+    }
+
+    @Override
+    public void visitCounter(String name, long value) {
+        typeLine(name, "", "counter");
+        name(name, "");
+        ascii(' ');
+        number(value);
+        ascii('\n');
+    }
+
+    @Override
+    public void visitLabeledCounter(CounterFamily family, LabelSet labels, long value) {
+        // children of one family arrive consecutively; emit TYPE once per family
+        if (family != lastFamily) {
+            typeLine(family.getName(), "", "counter");
+            lastFamily = family;
+        }
+        name(family.getName(), "");
+        ascii('{');
+        for (int i = 0; i < labels.size(); i++) {
+            if (i > 0) ascii(',');
+            name(family.labelName(i), "");
+            ascii("=\"");
+            labelValue(labels.value(i));
+            ascii('"');
+        }
+        ascii("} ");
+        number(value);
+        ascii('\n');
+    }
+
+    @Override
+    public void visitGauge(String name, long value) {
+        typeLine(name, "", "gauge");
+        name(name, "");
+        ascii(' ');
+        number(value);
+        ascii('\n');
+    }
+
+    @Override
+    public void visitMeter(String name, long count, double meanRate,
+                           double oneMinuteRate, double fiveMinuteRate, double fifteenMinuteRate) {
+        typeLine(name, "_total", "counter");
+        name(name, "_total");
+        ascii(' ');
+        number(count);
+        ascii('\n');
+
+        typeLine(name, "_rate", "gauge");
+        rateLine(name, "mean", meanRate);
+        rateLine(name, "1m", oneMinuteRate);
+        rateLine(name, "5m", fiveMinuteRate);
+        rateLine(name, "15m", fifteenMinuteRate);
+    }
+
+    @Override
+    public void visitHistogram(String name, Histogram histogram) {
+        HistogramSnapshot s = histogram.snapshot();
+        typeLine(name, "", "summary");
+        for (int i = 0; i < QUANTILES.length; i++) {
+            name(name, "");
+            ascii("{quantile=\"");
+            ascii(QUANTILE_LABELS[i]);
+            ascii("\"} ");
+            number(s.percentile(QUANTILES[i]));
+            ascii('\n');
+        }
+        name(name, "_sum");
+        ascii(' ');
+        number(s.getSum());
+        ascii('\n');
+        name(name, "_count");
+        ascii(' ');
+        number(s.getCount());
+        ascii('\n');
+    }
+
+    private void rateLine(String name, String window, double rate) {
+        name(name, "_rate");
+        ascii("{window=\"");
+        ascii(window);
+        ascii("\"} ");
+        number(rate);
+        ascii('\n');
+    }
+
+    private void typeLine(String name, String suffix, String type) {
+        ascii("# TYPE ");
+        name(name, suffix);
+        ascii(' ');
+        ascii(type);
+        ascii('\n');
+    }
+
+    // Metric names may only contain [a-zA-Z0-9_:] and must not start with a digit.
+    private void name(String name, String suffix) {
+        if (name.isEmpty() || (name.charAt(0) >= '0' && name.charAt(0) <= '9')) {
+            ascii('_');
+        }
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            boolean ok = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')
+                    || (c >= '0' && c <= '9') || c == '_' || c == ':';
+            ascii(ok ? c : '_');
+        }
+        ascii(suffix);
+    }
+
+    // Label values are UTF-8 with backslash, double quote and newline escaped.
+    private void labelValue(String v) {
+        for (int i = 0; i < v.length(); i++) {
+            char c = v.charAt(i);
+            if (c == '\\' || c == '"') {
+                ascii('\\');
+                ascii(c);
+            } else if (c == '\n') {
+                ascii("\\n");
+            } else if (c < 0x80) {
+                ascii(c);
+            } else {
+                int end = Character.isHighSurrogate(c) && i + 1 < v.length() ? i + 2 : i + 1;
+                byte[] utf8 = v.substring(i, end).getBytes(StandardCharsets.UTF_8);
+                ensure(utf8.length);
+                System.arraycopy(utf8, 0, buf, pos, utf8.length);
+                pos += utf8.length;
+                i = end - 1;
+            }
+        }
+    }
+
+    private void number(long v) {
+        if (v == Long.MIN_VALUE) {
+            ascii("-9223372036854775808");
+            return;
+        }
+        ensure(20);
+        if (v < 0) {
+            buf[pos++] = '-';
+            v = -v;
+        }
+        int start = pos;
+        do {
+            buf[pos++] = (byte) ('0' + (v % 10));
+            v /= 10;
+        } while (v != 0);
+        // digits were written least-significant first
+        for (int i = start, j = pos - 1; i < j; i++, j--) {
+            byte t = buf[i];
+            buf[i] = buf[j];
+            buf[j] = t;
+        }
+    }
+
+    // Six fixed decimals is plenty for per-second rates.
+    private void number(double v) {
+        if (Double.isNaN(v)) {
+            ascii("NaN");
+            return;
+        }
+        if (Double.isInfinite(v)) {
+            ascii(v > 0 ? "+Inf" : "-Inf");
+            return;
+        }
+        if (Math.abs(v) >= 1e12) {
+            ascii(Double.toString(v));
+            return;
+        }
+        if (v < 0) {
+            ascii('-');
+            v = -v;
+        }
+        long scaled = Math.round(v * 1_000_000);
+        number(scaled / 1_000_000);
+        ascii('.');
+        long frac = scaled % 1_000_000;
+        for (long div = 100_000; div > 0; div /= 10) {
+            ascii((char) ('0' + (frac / div) % 10));
+        }
+    }
+
+    private void ascii(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            ascii(s.charAt(i));
+        }
+    }
+
+    private void ascii(char c) {
+        ensure(1);
+        buf[pos++] = (byte) c;
+    }
+
+    private void ensure(int n) {
+        if (pos + n > buf.length) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() {
+        if (pos == 0) {
+            return;
+        }
+        try {
+            out.write(buf, 0, pos);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        pos = 0;
+    }
+}
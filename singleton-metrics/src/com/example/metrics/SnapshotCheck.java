@@ -0,0 +1,52 @@
+package com.example.metrics;
+
+import java.util.Map;
+
+/**
+ * Registers a few thousand counters and times repeated scrapes through
+ * getAll() (fresh boxed map per call) and snapshotCounters() (reused buffer).
+ */
+public class SnapshotCheck {
+
+    public static void main(String[] args) {
+        int keys = 5_000;
+        int scrapes = 2_000;
+
+        MetricsRegistry registry = MetricsRegistry.getInstance();
+        for (int i = 0; i < keys; i++) {
+            registry.counter("SNAPSHOT_KEY_" + i).add(i);
+        }
+
+        CounterBuffer buffer = new CounterBuffer();
+        long checksum = 0;
+
+        // warm-up
+        for (int i = 0; i < scrapes; i++) {
+            checksum += registry.getAll().size();
+            checksum += registry.snapshotCounters(buffer);
+        }
+
+        long t0 = System.nanoTime();
+        for (int i = 0; i < scrapes; i++) {
+            Map<String, Long> all = registry.getAll();
+            checksum += all.size();
+        }
+        long mapNanos = System.nanoTime() - t0;
+
+        t0 = System.nanoTime();
+        for (int i = 0; i < scrapes; i++) {
+            checksum += registry.snapshotCounters(buffer);
+        }
+        long bufferNanos = System.nanoTime() - t0;
+
+        long sum = 0;
+        for (int i = 0; i < buffer.size(); i++) {
+            sum += buffer.valueAt(i);
+        }
+
+        System.out.println("Counters: " + registry.snapshotCounters(buffer) + ", scrapes: " + scrapes);
+        System.out.printf("getAll()          : %.1f us/scrape%n", mapNanos / 1e3 / scrapes);
+        System.out.printf("snapshotCounters(): %.1f us/scrape%n", bufferNanos / 1e3 / scrapes);
+        System.out.println("Sum of values: " + sum + " (checksum " + checksum + ")");
+    }
+}
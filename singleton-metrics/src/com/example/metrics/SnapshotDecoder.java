@@ -0,0 +1,104 @@
+package com.example.metrics;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Decodes the frames of one {@link SnapshotEncoder} stream, in order.
+ *
+ * A collector keeps one decoder per source process and calls
+ * mergeInto(frame, registry) for each frame it receives. Every changed counter
+ * is added to the collector's registry as a delta, so the registry ends up
+ * holding the sum of all sources. A malformed frame is rejected with
+ * IllegalArgumentException; the stream is then out of sync and must be
+ * restarted with a fresh encoder/decoder pair. Not thread-safe.
+ */
+public final class SnapshotDecoder {
+
+    private final List<String> keys = new ArrayList<>();
+    private long[] values = new long[64];
+
+    private byte[] in;
+    private int pos;
+
+    /**
+     * Applies one frame: updates this decoder's view of the source and adds
+     * each delta to the matching counter of the target registry.
+     * Returns the number of counters that changed.
+     */
+    public int mergeInto(byte[] frame, MetricsRegistry target) {
+        return decode(frame, target);
+    }
+
+    /** Applies one frame to this decoder's view only. */
+    public int decode(byte[] frame) {
+        return decode(frame, null);
+    }
+
+    /** Latest absolute value the source reported for the key, or 0 if never sent. */
+    public long valueOf(String key) {
+        int id = keys.indexOf(key);
+        return id < 0 ? 0L : values[id];
+    }
+
+    public int keyCount() {
+        return keys.size();
+    }
+
+    private int decode(byte[] frame, MetricsRegistry target) {
+        in = frame;
+        pos = 0;
+        try {
+            if (frame.length < 2 || frame[0] != SnapshotEncoder.MAGIC || frame[1] != SnapshotEncoder.VERSION) {
+                throw new IllegalArgumentException("Not a metrics snapshot frame");
+            }
+            pos = 2;
+            int newKeys = (int) readVarint();
+            for (int i = 0; i < newKeys; i++) {
+                int len = (int) readVarint();
+                if (len < 0 || pos + len > in.length) {
+                    throw new IllegalArgumentException("Truncated key in snapshot frame");
+                }
+                keys.add(new String(in, pos, len, StandardCharsets.UTF_8));
+                pos += len;
+            }
+            if (values.length < keys.size()) {
+                values = Arrays.copyOf(values, Math.max(keys.size(), values.length * 2));
+            }
+
+            int changed = (int) readVarint();
+            for (int i = 0; i < changed; i++) {
+                int id = (int) readVarint();
+                if (id < 0 || id >= keys.size()) {
+                    throw new IllegalArgumentException("Unknown key id " + id + " (frames out of order?)");
+                }
+                long zz = readVarint();
+                long delta = (zz >>> 1) ^ -(zz & 1);
+                values[id] += delta;
+                if (target != null) {
+                    target.counter(keys.get(id)).add(delta);
+                }
+            }
+            return changed;
+        } finally {
+            in = null;
+        }
+    }
+
+    private long readVarint() {
+        long v = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (pos >= in.length) {
+                throw new IllegalArgumentException("Truncated varint in snapshot frame");
+            }
+            byte b = in[pos++];
+            v |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return v;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint in snapshot frame");
+    }
+}
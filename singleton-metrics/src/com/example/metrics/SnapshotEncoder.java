@@ -0,0 +1,134 @@
+package com.example.metrics;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Encodes successive counter snapshots of one process into compact frames
+ * for shipping to a collector ({@link SnapshotDecoder}).
+ *
+ * Frame layout (all integers are unsigned LEB128 varints):
+ * <pre>
+ *   byte    magic 'M', byte version 1
+ *   varint  newKeyCount, then per key: varint byteLength, UTF-8 bytes
+ *   varint  changedCount, then per entry: varint keyId, zigzag varint delta
+ * </pre>
+ * Keys get sequential ids the first time they are sent, so each name crosses
+ * the wire once per stream. Values are deltas against the previous frame, and
+ * unchanged counters are skipped. If a snapshot lists a name more than once,
+ * its rows are summed and sent as one key. An encoder is tied to one stream and its
+ * frames must be decoded in order by a single decoder. Not thread-safe.
+ */
+public final class SnapshotEncoder {
+
+    static final byte MAGIC = 'M';
+    static final byte VERSION = 1;
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private long[] last = new long[64];
+    private long[] current = new long[64];   // this frame's value per id
+    private int[] seenInFrame = new int[64]; // frame number that last set current[id]
+    private int frame;
+    private final CounterBuffer scratch = new CounterBuffer();
+    private int[] frameIds = new int[64];    // distinct ids of this frame, in row order
+    private int[] newKeyRows = new int[64];
+    private byte[] out = new byte[256];
+    private int pos;
+
+    /** Snapshots the registry's counters and encodes the changes since the previous frame. */
+    public byte[] encode(MetricsRegistry registry) {
+        registry.snapshotCounters(scratch);
+        return encode(scratch);
+    }
+
+    public byte[] encode(CounterBuffer snapshot) {
+        pos = 0;
+        out(MAGIC);
+        out(VERSION);
+
+        int n = snapshot.size();
+        if (frameIds.length < n) {
+            frameIds = new int[Math.max(n, frameIds.length * 2)];
+            newKeyRows = new int[frameIds.length];
+        }
+        frame++;
+
+        // pass 1: assign ids to unseen keys (remembering where they first appear)
+        // and total the values per id; a name listed twice, e.g. a flat counter
+        // spelled like a family child, is sent once with the sum of its rows
+        int newKeys = 0;
+        int distinct = 0;
+        for (int i = 0; i < n; i++) {
+            String name = snapshot.nameAt(i);
+            Integer id = ids.get(name);
+            if (id == null) {
+                id = ids.size();
+                ids.put(name, id);
+                newKeyRows[newKeys++] = i;
+                if (last.length <= id) {
+                    int cap = Math.max(id + 1, last.length * 2);
+                    last = Arrays.copyOf(last, cap);
+                    current = Arrays.copyOf(current, cap);
+                    seenInFrame = Arrays.copyOf(seenInFrame, cap);
+                }
+            }
+            if (seenInFrame[id] != frame) {
+                seenInFrame[id] = frame;
+                current[id] = snapshot.valueAt(i);
+                frameIds[distinct++] = id;
+            } else {
+                current[id] += snapshot.valueAt(i);
+            }
+        }
+        // dictionary additions in id order, so the decoder assigns the same ids
+        writeVarint(newKeys);
+        for (int k = 0; k < newKeys; k++) {
+            byte[] key = snapshot.nameAt(newKeyRows[k]).getBytes(StandardCharsets.UTF_8);
+            writeVarint(key.length);
+            ensure(key.length);
+            System.arraycopy(key, 0, out, pos, key.length);
+            pos += key.length;
+        }
+
+        // pass 2: deltas for counters that moved
+        int changed = 0;
+        for (int k = 0; k < distinct; k++) {
+            if (current[frameIds[k]] != last[frameIds[k]]) {
+                changed++;
+            }
+        }
+        writeVarint(changed);
+        for (int k = 0; k < distinct; k++) {
+            int id = frameIds[k];
+            long delta = current[id] - last[id];
+            if (delta != 0) {
+                writeVarint(id);
+                writeVarint((delta << 1) ^ (delta >> 63)); // zigzag
+                last[id] = current[id];
+            }
+        }
+        return Arrays.copyOf(out, pos);
+    }
+
+    private void writeVarint(long v) {
+        ensure(10);
+        while ((v & ~0x7FL) != 0) {
+            out[pos++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out[pos++] = (byte) v;
+    }
+
+    private void out(byte b) {
+        ensure(1);
+        out[pos++] = b;
+    }
+
+    private void ensure(int n) {
+        if (pos + n > out.length) {
+            out = Arrays.copyOf(out, Math.max(pos + n, out.length * 2));
+        }
+    }
+}
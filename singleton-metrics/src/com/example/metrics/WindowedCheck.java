@@ -0,0 +1,64 @@
+package com.example.metrics;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drives a WindowedCounter with a fake clock through the cases that matter:
+ * sums across a second boundary, buckets expiring out of the window, a
+ * bucket reused after a full rotation, a rejected negative delta, and a
+ * bucket saturating instead of wrapping.
+ */
+public class WindowedCheck {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    public static void main(String[] args) {
+        AtomicLong now = new AtomicLong(100 * SECOND);
+        WindowedCounter w = new WindowedCounter("WINDOW_CHECK", Duration.ofSeconds(5), now::get);
+        int failures = 0;
+
+        w.add(3);                       // second 100
+        now.addAndGet(SECOND);
+        w.add(2);                       // second 101
+        failures += expect("sumLast(1s) after a boundary", w.sumLast(Duration.ofSeconds(1)), 2);
+        now.addAndGet(SECOND / 2);      // 101.5 s
+        failures += expect("sumLast(2s) across the boundary", w.sumLast(Duration.ofSeconds(2)), 5);
+        failures += expect("sumLast(1500ms) rounds up to 2 s", w.sumLast(Duration.ofMillis(1500)), 5);
+        failures += expect("whole window", w.sum(), 5);
+
+        now.set(105 * SECOND);          // window is seconds 101..105
+        failures += expect("second 100 expired", w.sum(), 2);
+        now.set(106 * SECOND);
+        failures += expect("everything expired", w.sum(), 0);
+
+        now.set(110 * SECOND);          // same bucket as second 100 and 105, two rotations later
+        w.add(4);
+        failures += expect("reused bucket starts from zero", w.sum(), 4);
+        failures += expect("sumLast longer than the window is capped", w.sumLast(Duration.ofSeconds(60)), 4);
+
+        try {
+            w.add(-1);
+            System.out.println("FAIL negative delta was accepted");
+            failures++;
+        } catch (IllegalArgumentException expected) {
+            System.out.println("ok   negative delta rejected");
+        }
+        failures += expect("count unchanged by rejected delta", w.sum(), 4);
+
+        w.add(WindowedCounter.MAX_PER_SECOND - 5); // one short of the limit
+        w.add(1);
+        failures += expect("bucket reaches its limit", w.sumLast(Duration.ofSeconds(1)), WindowedCounter.MAX_PER_SECOND);
+        w.add(10);
+        w.add(Long.MAX_VALUE);
+        failures += expect("full bucket saturates", w.sumLast(Duration.ofSeconds(1)), WindowedCounter.MAX_PER_SECOND);
+
+        System.out.println(failures == 0 ? "All windowed checks passed" : failures + " windowed check(s) failed");
+    }
+
+    private static int expect(String what, long actual, long expected) {
+        boolean ok = actual == expected;
+        System.out.println((ok ? "ok   " : "FAIL ") + what + ": " + actual + (ok ? "" : " (expected " + expected + ")"));
+        return ok ? 0 : 1;
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.metrics;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Sliding-window counter for "events in the last N seconds" queries.
+ *
+ * Keeps a ring of one-second buckets. Each bucket is a single long packing
+ * the second it belongs to (upper 24 bits) with its count (lower 40 bits), so
+ * rolling a stale bucket over to the current second and adding to it is one
+ * CAS, and no increment is lost at a second boundary. Increments never lock
+ * or allocate; sumLast() reads at most windowSeconds buckets.
+ *
+ * A bucket saturates at {@link #MAX_PER_SECOND} (2^40 - 1, about 1.1e12
+ * events in one second) instead of wrapping around.
+ */
+public final class WindowedCounter implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private static final int COUNT_BITS = 40;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    /** Largest count one second's bucket can hold; further events in that second are not counted. */
+    public static final long MAX_PER_SECOND = COUNT_MASK;
+    private static final long STAMP_MASK = (1L << (64 - COUNT_BITS)) - 1;
+
+    private final String name;
+    private final int windowSeconds;
+    private final AtomicLongArray buckets;
+    private final transient LongSupplier nanoClock;
+
+    WindowedCounter(String name, Duration window) {
+        this(name, window, System::nanoTime);
+    }
+
+    /** Clock in nanoseconds; WindowedCheck drives a fake one. */
+    WindowedCounter(String name, Duration window, LongSupplier nanoClock) {
+        long seconds = window.toSeconds();
+        if (seconds < 1 || seconds > 86_400) {
+            throw new IllegalArgumentException("Window must be between 1 s and 1 day: " + window);
+        }
+        this.name = name;
+        this.windowSeconds = (int) seconds;
+        this.buckets = new AtomicLongArray(windowSeconds);
+        this.nanoClock = nanoClock;
+    }
+
+    public String getName() { return name; }
+
+    public Duration getWindow() {
+        return Duration.ofSeconds(windowSeconds);
+    }
+
+    public void inc() {
+        add(1L);
+    }
+
+    /** delta must be non-negative; a bucket counts in 40 bits, cannot go down and saturates. */
+    public void add(long delta) {
+        if (delta < 0) {
+            throw new IllegalArgumentException("Windowed counter delta must be non-negative: " + delta);
+        }
+        long second = currentSecond();
+        int idx = (int) Math.floorMod(second, (long) windowSeconds);
+        long stamp = second & STAMP_MASK;
+        while (true) {
+            long v = buckets.get(idx);
+            long count = (v >>> COUNT_BITS) == stamp ? v & COUNT_MASK : 0L;
+            // compared as a difference so a huge delta cannot overflow the long either
+            long next = (stamp << COUNT_BITS) | (delta >= COUNT_MASK - count ? COUNT_MASK : count + delta);
+            if (buckets.compareAndSet(idx, v, next)) {
+                return;
+            }
+        }
+    }
+
+    /** Events in the last {@code duration}, rounded up to whole seconds and capped at the window. */
+    public long sumLast(Duration duration) {
+        long k = Math.min(Math.max(1L, (duration.toNanos() + 999_999_999L) / 1_000_000_000L), windowSeconds);
+        long now = currentSecond();
+        long sum = 0;
+        for (long s = now - k + 1; s <= now; s++) {
+            long v = buckets.get((int) Math.floorMod(s, (long) windowSeconds));
+            if ((v >>> COUNT_BITS) == (s & STAMP_MASK)) {
+                sum += v & COUNT_MASK;
+            }
+        }
+        return sum;
+    }
+
+    /** Events in the whole window. */
+    public long sum() {
+        return sumLast(getWindow());
+    }
+
+    private long currentSecond() {
+        LongSupplier clock = nanoClock != null ? nanoClock : System::nanoTime;
+        return Math.floorDiv(clock.getAsLong(), 1_000_000_000L);
+    }
+}